@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// пакетная загрузка фильмов в формате NDJSON: разбор, проверка и сохранение в пустое хранилище.
+// каждое измерение - одна загрузка всего тела, хранилище пересоздается перед ней
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+
+	@Param({"10000", "100000"})
+	private int films;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private ExecutorService executor;
+	private byte[] body;
+	private BulkImportService bulkImportService;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Datasets.quietLogging();
+		executor = Executors.newVirtualThreadPerTaskExecutor();
+		StringBuilder ndjson = new StringBuilder();
+		for (Film film : Datasets.films(films)) {
+			ndjson.append(objectMapper.writeValueAsString(film)).append('\n');
+		}
+		body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Setup(Level.Iteration)
+	public void newStorage() {
+		bulkImportService = new BulkImportService(new InMemoryFilmStorage(), new InMemoryUserStorage(), objectMapper,
+				executor);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Benchmark
+	public ImportReport importFilms() throws IOException {
+		return bulkImportService.importFilms(new ByteArrayInputStream(body));
+	}
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// общие друзья пользователя с hubFriends друзьями и пользователя с OTHER_FRIENDS друзьями в графе
+// из USERS пользователей: при 10 друзьях у обоих массивы сливаются, при 1 000 000 - поиск идет
+// скачками по большому массиву
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CommonFriendsBenchmark {
+
+	private static final int USERS = 1_000_002;
+	private static final long HUB_ID = 1;
+	private static final long OTHER_ID = 2;
+	private static final int OTHER_FRIENDS = 10;
+
+	@Param({"10", "1000000"})
+	private int hubFriends;
+
+	private UserService userService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		userStorage.createAll(Datasets.users(USERS));
+		Random random = new Random(Datasets.SEED);
+		List<Friendship> batch = new ArrayList<>();
+		// друзья первого пользователя равномерно разбросаны по id, без повторов
+		for (int i = 0; i < hubFriends; i++) {
+			batch.add(new Friendship(HUB_ID, 3 + (long) i * (USERS - 2) / hubFriends));
+		}
+		for (int i = 0; i < OTHER_FRIENDS; i++) {
+			batch.add(new Friendship(OTHER_ID, 3 + (long) random.nextInt(USERS - 2)));
+		}
+		userStorage.addFriendships(batch);
+		userService = new UserService(userStorage);
+	}
+
+	@Benchmark
+	public int countCommonFriends() {
+		return userService.countCommonFriends(HUB_ID, OTHER_ID);
+	}
+
+	@Benchmark
+	public List<User> getCommonFriends() {
+		return userService.getCommonFriends(HUB_ID, OTHER_ID);
+	}
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// пропускная способность хранилища фильмов в памяти при 1-64 потоках запросов. все потоки работают
+// с одним хранилищем; число потоков задают вложенные классы, например ConcurrentStorageBenchmark.Threads16
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class ConcurrentStorageBenchmark {
+
+	@Param({"100000"})
+	private int films;
+
+	private InMemoryFilmStorage storage;
+
+	@Threads(1)
+	public static class Threads1 extends ConcurrentStorageBenchmark {
+	}
+
+	@Threads(4)
+	public static class Threads4 extends ConcurrentStorageBenchmark {
+	}
+
+	@Threads(16)
+	public static class Threads16 extends ConcurrentStorageBenchmark {
+	}
+
+	@Threads(64)
+	public static class Threads64 extends ConcurrentStorageBenchmark {
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		storage = new InMemoryFilmStorage();
+		storage.createAll(Datasets.films(films));
+	}
+
+	@Benchmark
+	public Optional<Film> findFilmById() {
+		return storage.findFilmById(randomFilm());
+	}
+
+	@Benchmark
+	public List<Film> getMostLiked() {
+		return storage.getMostLiked(10);
+	}
+
+	// лайк и его отмена: блокировка фильма, перестановка в индексе популярности и индекс совместных лайков
+	@Benchmark
+	public void toggleLike() {
+		long filmId = randomFilm();
+		long userId = 1 + ThreadLocalRandom.current().nextInt(10_000);
+		storage.addLike(filmId, userId);
+		storage.deleteLike(filmId, userId);
+	}
+
+	// замена фильма новым объектом под общей блокировкой записи
+	@Benchmark
+	public Film update() {
+		long id = randomFilm();
+		Film film = Datasets.film(id);
+		film.setId(id);
+		film.setDuration(60 + ThreadLocalRandom.current().nextInt(120));
+		return storage.update(film);
+	}
+
+	private long randomFilm() {
+		return 1 + ThreadLocalRandom.current().nextInt(films);
+	}
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// общие данные бенчмарков: фильмы и пользователи с предсказуемыми полями и распределения степеней
+// (сколько лайков ставит пользователь, сколько у него друзей). генератор с фиксированным зерном,
+// чтобы результаты разных коммитов считались на одинаковых данных
+final class Datasets {
+
+	static final long SEED = 42;
+
+	private static final String[] WORDS = {"приключения", "космос", "любовь", "война", "detective", "comedy",
+			"город", "море", "история", "семья", "будущее", "night"};
+
+	// распределение степеней с заданным средним
+	enum Degrees {
+		// у всех примерно одинаково: от 0 до 2 * mean
+		UNIFORM,
+		// степенной закон (Парето с показателем 2): у большинства мало, у немногих - на порядки больше среднего
+		POWER_LAW;
+
+		int sample(Random random, int mean, int max) {
+			int degree = switch (this) {
+				case UNIFORM -> random.nextInt(2 * mean + 1);
+				case POWER_LAW -> (int) (mean / 2.0 / Math.sqrt(1 - random.nextDouble()));
+			};
+			return Math.min(degree, max);
+		}
+
+		// выбор id из 1..count: равномерно или со смещением к малым id (популярные фильмы, «звезды» среди пользователей)
+		long pick(Random random, int count) {
+			double u = random.nextDouble();
+			return 1 + (long) (count * (this == UNIFORM ? u : u * u * u));
+		}
+	}
+
+	private Datasets() {
+	}
+
+	// сервисы и хранилища пишут в лог каждую операцию; в бенчмарках измеряется сама операция
+	static void quietLogging() {
+		((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+	}
+
+	static Film film(long number) {
+		return Film.builder()
+				.name("film" + number + " " + WORDS[(int) (number % WORDS.length)])
+				.description(WORDS[(int) (number * 7 % WORDS.length)] + " " + WORDS[(int) (number * 5 % WORDS.length)]
+						+ " номер " + number)
+				.releaseDate(1950 + number % 70 + "-0" + (1 + number % 9) + "-1" + number % 10)
+				.duration(60 + (int) (number % 120))
+				.build();
+	}
+
+	static List<Film> films(int count) {
+		List<Film> films = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			films.add(film(i));
+		}
+		return films;
+	}
+
+	static User user(long number) {
+		return User.builder()
+				.email("user" + number + "@filmorate.ru")
+				.login("user" + number)
+				.name("Пользователь " + number)
+				.birthday(1950 + number % 60 + "-1" + number % 3 + "-2" + number % 8)
+				.build();
+	}
+
+	static List<User> users(int count) {
+		List<User> users = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			users.add(user(i));
+		}
+		return users;
+	}
+
+	static String word(long number) {
+		return WORDS[Math.floorMod(number, WORDS.length)];
+	}
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// выгрузка всех фильмов: потоком NDJSON по страницам (GET /films с Accept: application/x-ndjson) против
+// одного массива JSON из findAll (GET /films без limit). ответ пишется в поток, который только считает байты.
+// кроме времени всей выгрузки выводятся метрики firstByteMicros - время до первой записи в поток (наибольшее
+// за итерацию) и heapGrowthMegabytes - наибольший прирост занятой кучи за выгрузку (сумма пиков областей
+// кучи минус занятое до начала; оценка сверху, так как пики областей достигаются в разные моменты)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+	@Param({"1000000"})
+	private int films;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final NdjsonWriter ndjsonWriter = new NdjsonWriter(objectMapper);
+	private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP)
+			.toList();
+	private InMemoryFilmStorage storage;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Export {
+
+		public long firstByteMicros;
+		public long heapGrowthMegabytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			firstByteMicros = 0;
+			heapGrowthMegabytes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		storage = new InMemoryFilmStorage();
+		storage.createAll(Datasets.films(films));
+	}
+
+	@Benchmark
+	public long streamNdjson(Export export) throws IOException {
+		return export(export, output -> ndjsonWriter.stream(storage::findPage, Film::getId).writeTo(output));
+	}
+
+	@Benchmark
+	public long writeList(Export export) throws IOException {
+		return export(export, output -> objectMapper.writeValue(output, storage.findAll()));
+	}
+
+	private long export(Export export, Body body) throws IOException {
+		long heapBefore = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			pool.resetPeakUsage();
+			heapBefore += pool.getUsage().getUsed();
+		}
+		CountingOutputStream output = new CountingOutputStream(System.nanoTime());
+		body.write(output);
+		long heapPeak = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			heapPeak += pool.getPeakUsage().getUsed();
+		}
+		export.firstByteMicros = Math.max(export.firstByteMicros,
+				TimeUnit.NANOSECONDS.toMicros(output.firstByteNanos - output.startNanos));
+		export.heapGrowthMegabytes = Math.max(export.heapGrowthMegabytes, (heapPeak - heapBefore) >> 20);
+		return output.bytes;
+	}
+
+	private interface Body {
+		void write(OutputStream output) throws IOException;
+	}
+
+	// вместо ответа: число байтов и момент первой записи
+	private static class CountingOutputStream extends OutputStream {
+
+		private final long startNanos;
+		private long firstByteNanos;
+		private long bytes;
+
+		CountingOutputStream(long startNanos) {
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public void write(int b) {
+			write(null, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			if (bytes == 0 && len > 0) {
+				firstByteNanos = System.nanoTime();
+			}
+			bytes += len;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// выборка фильмов по диапазонам даты релиза и продолжительности: индексы хранилища против полного обхода.
+// доля фильмов в выборке указана для 1 000 000 фильмов из Datasets
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilmRangeBenchmark {
+
+	public enum Query {
+		// 1995 год, 90-100 минут: 0,12%
+		ONE_YEAR_SHORT("1995-01-01", "1995-12-31", 90, 100),
+		// только продолжительность 95 минут: 0,8%
+		ONE_DURATION(null, null, 95, 95),
+		// 1990-1999 годы, до двух часов: 7%
+		DECADE_UNDER_TWO_HOURS("1990-01-01", "1999-12-31", Integer.MIN_VALUE, 120),
+		// с 1985 года, любая продолжительность: 50%
+		HALF("1985-01-01", null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+		private final int releasedFrom;
+		private final int releasedTo;
+		private final int minDuration;
+		private final int maxDuration;
+
+		Query(String releasedFrom, String releasedTo, int minDuration, int maxDuration) {
+			this.releasedFrom = releasedFrom != null ? IsoDates.parse(releasedFrom) : Integer.MIN_VALUE;
+			this.releasedTo = releasedTo != null ? IsoDates.parse(releasedTo) : Integer.MAX_VALUE;
+			this.minDuration = minDuration;
+			this.maxDuration = maxDuration;
+		}
+	}
+
+	@Param({"1000000"})
+	private int films;
+	@Param({"ONE_YEAR_SHORT", "ONE_DURATION", "DECADE_UNDER_TWO_HOURS", "HALF"})
+	private Query query;
+
+	private InMemoryFilmStorage storage;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		storage = new InMemoryFilmStorage();
+		storage.createAll(Datasets.films(films));
+	}
+
+	@Benchmark
+	public List<Film> findByRange() {
+		return storage.findByRange(query.releasedFrom, query.releasedTo, query.minDuration, query.maxDuration);
+	}
+
+	// то, что раньше делал клиент: все фильмы, фильтр и сортировка по дате релиза
+	@Benchmark
+	public List<Film> scan() {
+		return storage.findAll().stream()
+				.filter(film -> film.getReleaseDate() >= query.releasedFrom && film.getReleaseDate() <= query.releasedTo
+						&& film.getDuration() >= query.minDuration && film.getDuration() <= query.maxDuration)
+				.sorted(Comparator.comparingInt(Film::getReleaseDate).thenComparing(Film::getId))
+				.toList();
+	}
+}
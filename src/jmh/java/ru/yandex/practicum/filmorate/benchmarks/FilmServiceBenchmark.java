@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// запросы к фильмам через сервис: рейтинги, поиск, рекомендации и лайки.
+// likes - распределение числа лайков пользователя; при POWER_LAW лайки к тому же смещены к популярным фильмам
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilmServiceBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	private int films;
+	@Param({"10000"})
+	private int users;
+	@Param({"20"})
+	private int meanLikes;
+	@Param({"UNIFORM", "POWER_LAW"})
+	private Datasets.Degrees likes;
+
+	private InMemoryFilmStorage filmStorage;
+	private FilmService filmService;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		filmStorage = new InMemoryFilmStorage();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		filmStorage.createAll(Datasets.films(films));
+		userStorage.createAll(Datasets.users(users));
+		random = new Random(Datasets.SEED);
+		List<Like> batch = new ArrayList<>();
+		for (long userId = 1; userId <= users; userId++) {
+			int degree = likes.sample(random, meanLikes, films);
+			for (int i = 0; i < degree; i++) {
+				batch.add(new Like(likes.pick(random, films), userId));
+			}
+		}
+		filmStorage.addLikes(batch);
+		filmService = new FilmService(filmStorage, userStorage);
+	}
+
+	@Benchmark
+	public List<Film> getMostLiked() {
+		return filmService.getMostLiked(10);
+	}
+
+	// то, что getMostLiked делал до индекса популярности: сортировка всех фильмов по числу лайков
+	@Benchmark
+	public List<Film> sortMostLiked() {
+		return filmStorage.findAll().stream()
+				.sorted(Comparator.comparing((Film film) -> film.getLikes().size(), Comparator.reverseOrder()))
+				.limit(10)
+				.toList();
+	}
+
+	@Benchmark
+	public List<Film> getTrending() {
+		return filmService.getTrending("24h", 10);
+	}
+
+	// страница постраничной выгрузки с произвольного места
+	@Benchmark
+	public List<Film> findPage() {
+		return filmService.findPage(random.nextInt(films), 100);
+	}
+
+	// слово и начало слова: пересечение частого слова с автодополнением
+	@Benchmark
+	public List<Film> search() {
+		String query = Datasets.word(random.nextInt()) + " " + Datasets.word(random.nextInt()).substring(0, 3);
+		return filmService.search(query, 10);
+	}
+
+	@Benchmark
+	public List<Film> getRecommended() {
+		return filmService.getRecommended(1 + (long) random.nextInt(users), 10);
+	}
+
+	// лайк и его отмена: обновление рейтингов, индекса совместных лайков и окон последнего времени
+	@Benchmark
+	public void toggleLike() {
+		long filmId = 1 + random.nextInt(films);
+		long userId = 1 + random.nextInt(users);
+		filmService.addLike(filmId, userId);
+		filmService.deleteLike(filmId, userId);
+	}
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// основные операции хранилища фильмов в памяти на хранилищах разного размера
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilmStorageBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	private int films;
+
+	private InMemoryFilmStorage storage;
+	private Random random;
+	private long created;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		storage = new InMemoryFilmStorage();
+		storage.createAll(Datasets.films(films));
+		random = new Random(Datasets.SEED);
+		created = films;
+	}
+
+	// хранилище растет на время измерения, поэтому размер указан на его начало
+	@Benchmark
+	public Film create() {
+		return storage.create(Datasets.film(++created));
+	}
+
+	@Benchmark
+	public Optional<Film> findFilmById() {
+		return storage.findFilmById(1 + (long) random.nextInt(films));
+	}
+
+	// название не меняется, описание и длительность перезаписываются
+	@Benchmark
+	public Film update() {
+		long id = 1 + random.nextInt(films);
+		Film film = Datasets.film(id);
+		film.setId(id);
+		film.setDuration(60 + random.nextInt(120));
+		return storage.update(film);
+	}
+}
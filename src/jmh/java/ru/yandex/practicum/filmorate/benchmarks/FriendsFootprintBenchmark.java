@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// память под связи (лайки, друзья) в SortedLongSet против прежнего HashSet<Long>: edges связей по
+// MEAN_DEGREE на пользователя. занятый графом объем (JOL, обход всех достижимых объектов) выводится
+// дополнительной метрикой bytes, время - проверка одной связи
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx12g", "-Djdk.attach.allowAttachSelf"})
+@State(Scope.Benchmark)
+public class FriendsFootprintBenchmark {
+
+	private static final int MEAN_DEGREE = 100;
+
+	public enum Layout {
+		SORTED_LONG_SET,
+		HASH_SET
+	}
+
+	@Param({"1000000", "10000000"})
+	private int edges;
+	@Param({"SORTED_LONG_SET", "HASH_SET"})
+	private Layout layout;
+
+	private final Map<Long, Set<Long>> friends = new HashMap<>();
+	private int users;
+	private long bytes;
+	private Random random;
+
+	// размер графа в каждой итерации; JMH выводит его рядом со временем и пишет в JSON
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void record(FriendsFootprintBenchmark benchmark) {
+			bytes = benchmark.bytes;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		users = edges / MEAN_DEGREE;
+		random = new Random(Datasets.SEED);
+		for (long userId = 1; userId <= users; userId++) {
+			Set<Long> set = layout == Layout.SORTED_LONG_SET ? new SortedLongSet() : new HashSet<>();
+			while (set.size() < MEAN_DEGREE) {
+				set.add(randomUser());
+			}
+			friends.put(userId, set);
+		}
+		bytes = GraphLayout.parseInstance(friends).totalSize();
+	}
+
+	@Benchmark
+	public boolean contains(Footprint footprint) {
+		return friends.get(randomUser()).contains(randomUser());
+	}
+
+	private long randomUser() {
+		return 1 + random.nextInt(users);
+	}
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.journal.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// восстановление хранилищ из журнала примерно на records записей: FILMS фильмов, пользователи и у каждого
+// пользователя EDGES_PER_USER лайков и столько же дружб. каждое измерение - одно воспроизведение журнала
+// с начала в пустые хранилища, как при старте без снимка
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@State(Scope.Benchmark)
+public class JournalReplayBenchmark {
+
+	private static final int FILMS = 100_000;
+	private static final int EDGES_PER_USER = 5;
+
+	@Param({"1000000", "10000000"})
+	private int records;
+
+	private Path path;
+	private InMemoryFilmStorage filmStorage;
+	private InMemoryUserStorage userStorage;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Datasets.quietLogging();
+		path = Files.createTempFile("filmorate", ".wal");
+		int users = (records - FILMS) / (1 + 2 * EDGES_PER_USER);
+		Random random = new Random(Datasets.SEED);
+		// записи пишутся в журнал напрямую, без хранилищ, и без ожидания fsync каждой записи
+		try (WriteAheadLog writeAheadLog = new WriteAheadLog(path, 4096, Duration.ZERO, false)) {
+			writeAheadLog.open();
+			for (long id = 1; id <= FILMS; id++) {
+				Film film = Datasets.film(id);
+				film.setId(id);
+				writeAheadLog.filmSaved(film);
+			}
+			for (long id = 1; id <= users; id++) {
+				User user = Datasets.user(id);
+				user.setId(id);
+				writeAheadLog.userSaved(user);
+			}
+			for (long userId = 1; userId <= users; userId++) {
+				for (int i = 0; i < EDGES_PER_USER; i++) {
+					writeAheadLog.likeChanged(1 + random.nextInt(FILMS), userId, true);
+					long friendId = 1 + random.nextInt(users);
+					if (friendId != userId) {
+						writeAheadLog.friendshipChanged(userId, friendId, true);
+					}
+				}
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void newStorages() {
+		filmStorage = new InMemoryFilmStorage();
+		userStorage = new InMemoryUserStorage();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	@Benchmark
+	public long replay() throws IOException {
+		return new WriteAheadLog(path, 1, Duration.ZERO, true).replay(filmStorage, userStorage, 0);
+	}
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// лайки в хранилище с журналом изменений из THREADS потоков: сколько операций в секунду дает групповая
+// фиксация при разных batchSize и maxDelayMicros (filmorate.wal.batch-size и max-delay) и без ожидания fsync.
+// журнал пишется во временный файл, поэтому результат зависит от диска, на котором лежит java.io.tmpdir
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(JournalWriteBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class JournalWriteBenchmark {
+
+	static final int THREADS = 16;
+	private static final int FILMS = 10_000;
+	private static final int USERS = 10_000;
+
+	@Param({"1", "64", "256"})
+	private int batchSize;
+	@Param({"0", "500"})
+	private int maxDelayMicros;
+	@Param({"true", "false"})
+	private boolean awaitSync;
+
+	private Path path;
+	private WriteAheadLog writeAheadLog;
+	private InMemoryFilmStorage storage;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Datasets.quietLogging();
+		storage = new InMemoryFilmStorage();
+		storage.createAll(Datasets.films(FILMS));
+		path = Files.createTempFile("filmorate", ".wal");
+		writeAheadLog = new WriteAheadLog(path, batchSize, Duration.ofNanos(maxDelayMicros * 1000L), awaitSync);
+		writeAheadLog.open();
+		storage.setJournal(writeAheadLog);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		writeAheadLog.close();
+		Files.deleteIfExists(path);
+	}
+
+	// лайк и его отмена: две записи журнала, каждая ждет своего fsync при awaitSync
+	@Benchmark
+	public void toggleLike() {
+		long filmId = 1 + ThreadLocalRandom.current().nextInt(FILMS);
+		long userId = 1 + ThreadLocalRandom.current().nextInt(USERS);
+		storage.addLike(filmId, userId);
+		storage.deleteLike(filmId, userId);
+	}
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// чтение фильма из JSON с датой релиза разных типов: номер дня (модель), строка с разбором после чтения
+// (прежняя модель) и LocalDate через модуль jsr310. во всех случаях результат - номер дня
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonDatesBenchmark {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final ObjectReader filmReader = objectMapper.readerFor(Film.class);
+	private final ObjectReader stringDateReader = objectMapper.readerFor(StringDateFilm.class);
+	private final ObjectReader localDateReader = objectMapper.readerFor(LocalDateFilm.class);
+	private Film film;
+	private byte[] json;
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class StringDateFilm {
+		public Long id;
+		public String name;
+		public String description;
+		public String releaseDate;
+		public int duration;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class LocalDateFilm {
+		public Long id;
+		public String name;
+		public String description;
+		public LocalDate releaseDate;
+		public int duration;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		film = Datasets.film(1);
+		film.setId(1L);
+		json = objectMapper.writeValueAsString(film).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public int readEpochDay() throws IOException {
+		Film read = filmReader.readValue(json);
+		return read.getReleaseDate();
+	}
+
+	@Benchmark
+	public int readStringDate() throws IOException {
+		StringDateFilm read = stringDateReader.readValue(json);
+		return IsoDates.parse(read.releaseDate);
+	}
+
+	@Benchmark
+	public int readLocalDate() throws IOException {
+		LocalDateFilm read = localDateReader.readValue(json);
+		return IsoDates.of(read.releaseDate);
+	}
+
+	@Benchmark
+	public String writeEpochDay() throws IOException {
+		return objectMapper.writeValueAsString(film);
+	}
+}
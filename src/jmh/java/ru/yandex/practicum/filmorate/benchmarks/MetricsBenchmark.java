@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// цена @Timed на методах сервисов: тот же сервис без прокси и через прокси с TimedAspect, как в приложении.
+// таймер с гистограммой (histogram = true) пишется в SimpleMeterRegistry
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+	private static final int FILMS = 10_000;
+
+	private FilmService plain;
+	private FilmService timed;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+		filmStorage.createAll(Datasets.films(FILMS));
+		plain = new FilmService(filmStorage, new InMemoryUserStorage());
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(plain);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAspect(new TimedAspect(new SimpleMeterRegistry()));
+		timed = proxyFactory.getProxy();
+		random = new Random(Datasets.SEED);
+	}
+
+	@Benchmark
+	public Optional<Film> findFilmById() {
+		return plain.findFilmById(1 + (long) random.nextInt(FILMS));
+	}
+
+	@Benchmark
+	public Optional<Film> findFilmByIdTimed() {
+		return timed.findFilmById(1 + (long) random.nextInt(FILMS));
+	}
+
+	@Benchmark
+	public List<Film> getMostLiked() {
+		return plain.getMostLiked(10);
+	}
+
+	@Benchmark
+	public List<Film> getMostLikedTimed() {
+		return timed.getMostLiked(10);
+	}
+}
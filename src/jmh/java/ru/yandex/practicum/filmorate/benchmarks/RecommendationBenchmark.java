@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// рекомендации друзей для пользователя с friends друзьями в графе из users пользователей; у каждого друга
+// по FRIENDS_OF_FRIEND случайных друзей. цель - 10 мс p99 для 5 000 друзей в графе из 1 000 000 пользователей.
+// режим SampleTime: JMH выводит перцентили p50/p99 времени одного запроса.
+// maxEdges - предел просматриваемых связей (filmorate.recommendations.max-edges), 0 - полный подсчет
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RecommendationBenchmark {
+
+	private static final long USER_ID = 1;
+	private static final int FRIENDS_OF_FRIEND = 100;
+
+	@Param({"1000000"})
+	private int users;
+	@Param({"10", "5000"})
+	private int friends;
+	@Param({"0", "50000"})
+	private int maxEdges;
+
+	private UserService userService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		userStorage.createAll(Datasets.users(users));
+		Random random = new Random(Datasets.SEED);
+		List<Friendship> batch = new ArrayList<>();
+		for (int i = 0; i < friends; i++) {
+			long friendId = 2 + random.nextInt(users - 1);
+			batch.add(new Friendship(USER_ID, friendId));
+			for (int k = 0; k < FRIENDS_OF_FRIEND; k++) {
+				long otherId = 2 + random.nextInt(users - 1);
+				if (otherId != friendId) {
+					batch.add(new Friendship(friendId, otherId));
+				}
+			}
+		}
+		userStorage.addFriendships(batch);
+		userService = new UserService(userStorage);
+		userService.setMaxRecommendationEdges(maxEdges);
+	}
+
+	@Benchmark
+	public List<User> getRecommendations() {
+		return userService.getRecommendations(USER_ID, 10);
+	}
+}
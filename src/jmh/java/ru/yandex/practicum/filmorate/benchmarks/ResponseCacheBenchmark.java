@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// ответ GET /films/popular из кэша против его вычисления и сериализации при промахе. только сами операции,
+// без фильтра и HTTP: время запроса целиком и p99 под нагрузкой меряет LoadHarness
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseCacheBenchmark {
+
+	private static final int USERS = 10_000;
+	private static final int MEAN_LIKES = 20;
+
+	@Param({"100000"})
+	private int films;
+	@Param({"10", "100"})
+	private int count;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ResponseCache responseCache = new ResponseCache(64 << 20, Duration.ofMinutes(10));
+	private InMemoryFilmStorage storage;
+	private String key;
+
+	@Setup(Level.Trial)
+	public void setUp() throws JsonProcessingException {
+		Datasets.quietLogging();
+		storage = new InMemoryFilmStorage();
+		storage.createAll(Datasets.films(films));
+		Random random = new Random(Datasets.SEED);
+		List<Like> batch = new ArrayList<>();
+		for (long userId = 1; userId <= USERS; userId++) {
+			int degree = Datasets.Degrees.POWER_LAW.sample(random, MEAN_LIKES, films);
+			for (int i = 0; i < degree; i++) {
+				batch.add(new Like(Datasets.Degrees.POWER_LAW.pick(random, films), userId));
+			}
+		}
+		storage.addLikes(batch);
+		key = ResponseCache.popularKey(count);
+		List<Film> popular = storage.getMostLiked(count);
+		responseCache.put(key, objectMapper.writeValueAsBytes(popular), null, popular, responseCache.stamp(key));
+	}
+
+	@Benchmark
+	public byte[] cached() {
+		return responseCache.get(key).getBody();
+	}
+
+	@Benchmark
+	public byte[] serialized() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(storage.getMostLiked(count));
+	}
+}
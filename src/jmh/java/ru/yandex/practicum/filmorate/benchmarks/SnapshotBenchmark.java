@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.journal.SnapshotStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// запись снимка хранилищ и загрузка его в пустые хранилища, как при старте: users пользователей с MEAN_FRIENDS
+// друзьями и MEAN_LIKES лайками на FILMS фильмов. каждое измерение - один снимок целиком
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+	private static final int FILMS = 10_000;
+	private static final int MEAN_FRIENDS = 10;
+	private static final int MEAN_LIKES = 5;
+
+	@Param({"100000", "1000000"})
+	private int users;
+
+	private Path path;
+	private SnapshotStore snapshotStore;
+	private InMemoryFilmStorage filmStorage;
+	private InMemoryUserStorage userStorage;
+	private InMemoryFilmStorage loadedFilms;
+	private InMemoryUserStorage loadedUsers;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Datasets.quietLogging();
+		filmStorage = new InMemoryFilmStorage();
+		userStorage = new InMemoryUserStorage();
+		filmStorage.createAll(Datasets.films(FILMS));
+		userStorage.createAll(Datasets.users(users));
+		Random random = new Random(Datasets.SEED);
+		List<Friendship> friendships = new ArrayList<>();
+		List<Like> likes = new ArrayList<>();
+		for (long userId = 1; userId <= users; userId++) {
+			// дружба взаимная, поэтому на пользователя приходится половина его исходящих связей
+			for (int i = 0; i < MEAN_FRIENDS / 2; i++) {
+				long friendId = 1 + random.nextInt(users);
+				if (friendId != userId) {
+					friendships.add(new Friendship(userId, friendId));
+				}
+			}
+			for (int i = 0; i < MEAN_LIKES; i++) {
+				likes.add(new Like(1 + (long) random.nextInt(FILMS), userId));
+			}
+		}
+		userStorage.addFriendships(friendships);
+		filmStorage.addLikes(likes);
+		path = Files.createTempFile("filmorate", ".snapshot");
+		snapshotStore = new SnapshotStore(path);
+		snapshotStore.write(filmStorage, userStorage, 0);
+	}
+
+	@Setup(Level.Iteration)
+	public void newStorages() {
+		loadedFilms = new InMemoryFilmStorage();
+		loadedUsers = new InMemoryUserStorage();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	@Benchmark
+	public void write() throws IOException {
+		snapshotStore.write(filmStorage, userStorage, 0);
+	}
+
+	@Benchmark
+	public long load() throws IOException {
+		return snapshotStore.load(loadedFilms, loadedUsers);
+	}
+}
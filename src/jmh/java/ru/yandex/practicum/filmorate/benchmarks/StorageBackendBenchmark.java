@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.jdbc.JdbcBatchWriter;
+import ru.yandex.practicum.filmorate.storage.jdbc.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.jdbc.JdbcUserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// одни и те же запросы к хранилищу фильмов в памяти и к хранилищу JDBC на встроенной H2 в памяти
+// (профиль jdbc): разница - цена SQL, JDBC и пакетной записи, а не диска
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StorageBackendBenchmark {
+
+	private static final int USERS = 10_000;
+	private static final int MEAN_LIKES = 20;
+
+	public enum Backend {
+		IN_MEMORY,
+		JDBC
+	}
+
+	@Param({"10000", "100000"})
+	private int films;
+	@Param({"IN_MEMORY", "JDBC"})
+	private Backend backend;
+
+	private FilmStorage filmStorage;
+	private JdbcBatchWriter batchWriter;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		UserStorage userStorage;
+		if (backend == Backend.JDBC) {
+			// отдельная база на каждый запуск, схема - та же, что у приложения
+			DriverManagerDataSource dataSource = new DriverManagerDataSource(
+					"jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+			new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			batchWriter = new JdbcBatchWriter(jdbcTemplate,
+					new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 256);
+			filmStorage = new JdbcFilmStorage(jdbcTemplate, batchWriter);
+			userStorage = new JdbcUserStorage(jdbcTemplate, batchWriter);
+		} else {
+			filmStorage = new InMemoryFilmStorage();
+			userStorage = new InMemoryUserStorage();
+		}
+		filmStorage.createAll(Datasets.films(films));
+		userStorage.createAll(Datasets.users(USERS));
+		random = new Random(Datasets.SEED);
+		List<Like> batch = new ArrayList<>();
+		for (long userId = 1; userId <= USERS; userId++) {
+			int degree = Datasets.Degrees.UNIFORM.sample(random, MEAN_LIKES, films);
+			for (int i = 0; i < degree; i++) {
+				batch.add(new Like(Datasets.Degrees.UNIFORM.pick(random, films), userId));
+			}
+		}
+		filmStorage.addLikes(batch);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (batchWriter != null) {
+			batchWriter.close();
+		}
+	}
+
+	@Benchmark
+	public Optional<Film> findFilmById() {
+		return filmStorage.findFilmById(randomFilm());
+	}
+
+	@Benchmark
+	public List<Film> getMostLiked() {
+		return filmStorage.getMostLiked(10);
+	}
+
+	@Benchmark
+	public List<Film> findPage() {
+		return filmStorage.findPage(random.nextInt(films), 100);
+	}
+
+	// лайк и его отмена; в JDBC каждая операция ждет своей пачки в фоновом потоке записи
+	@Benchmark
+	public void toggleLike() {
+		long filmId = randomFilm();
+		long userId = 1 + random.nextInt(USERS);
+		filmStorage.addLike(filmId, userId);
+		filmStorage.deleteLike(filmId, userId);
+	}
+
+	private long randomFilm() {
+		return 1 + random.nextInt(films);
+	}
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// запросы к друзьям через сервис на графах дружбы разного размера и формы.
+// friends - распределение числа друзей; при POWER_LAW дружбы к тому же смещены к «звездам» с малыми id
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+	@Param({"10000", "100000"})
+	private int users;
+	@Param({"10", "100"})
+	private int meanFriends;
+	@Param({"UNIFORM", "POWER_LAW"})
+	private Datasets.Degrees friends;
+
+	private UserService userService;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		userStorage.createAll(Datasets.users(users));
+		random = new Random(Datasets.SEED);
+		// дружба взаимная, поэтому на пользователя приходится половина его исходящих связей
+		List<Friendship> batch = new ArrayList<>();
+		for (long userId = 1; userId <= users; userId++) {
+			int degree = friends.sample(random, meanFriends / 2, users - 1);
+			for (int i = 0; i < degree; i++) {
+				long friendId = friends.pick(random, users);
+				if (friendId != userId) {
+					batch.add(new Friendship(userId, friendId));
+				}
+			}
+		}
+		userStorage.addFriendships(batch);
+		userService = new UserService(userStorage);
+	}
+
+	@Benchmark
+	public List<User> getUserFriends() {
+		return userService.getUserFriends(randomUser());
+	}
+
+	@Benchmark
+	public List<User> getCommonFriends() {
+		return userService.getCommonFriends(randomUser(), randomUser());
+	}
+
+	@Benchmark
+	public List<User> getRecommendations() {
+		return userService.getRecommendations(randomUser(), 10);
+	}
+
+	private long randomUser() {
+		return 1 + random.nextInt(users);
+	}
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validator.FilmValidator;
+import ru.yandex.practicum.filmorate.validator.UserValidator;
+
+import java.util.concurrent.TimeUnit;
+
+// проверки полей при создании и изменении; выделение памяти на операцию видно с профилировщиком:
+// mvn -Pjmh -DskipTests compile exec:exec -Djmh.args="ValidatorBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+	private final FilmValidator filmValidator = new FilmValidator();
+	private final UserValidator userValidator = new UserValidator();
+	private Film film;
+	private User user;
+	private User invalidUser;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Datasets.quietLogging();
+		film = Datasets.film(1);
+		user = Datasets.user(1);
+		invalidUser = Datasets.user(2);
+		invalidUser.setEmail("user2.filmorate.ru");
+	}
+
+	@Benchmark
+	public void validateFilm() {
+		filmValidator.validate(film, null, name -> null);
+	}
+
+	@Benchmark
+	public void validateUser() {
+		userValidator.validate(user, null, email -> null);
+	}
+
+	// отказ проверки: исключение с сообщением об ошибке
+	@Benchmark
+	public void rejectUser(Blackhole blackhole) {
+		try {
+			userValidator.validate(invalidUser, null, email -> null);
+		} catch (RuntimeException e) {
+			blackhole.consume(e);
+		}
+	}
+}
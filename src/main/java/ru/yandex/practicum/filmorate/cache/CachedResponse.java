@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// сериализованное тело ответа и сведения, по которым определяется, затрагивает ли изменение эту запись
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+	private final byte[] body;
+	// ETag ответа контроллера, если он был
+	private final String etag;
+	// для списка популярных: id фильмов в ответе (отсортированы), минимальное число лайков в нем
+	// и признак того, что список заполнен целиком (в нем count фильмов)
+	private final long[] filmIds;
+	private final int minLikes;
+	private final boolean full;
+
+	public static CachedResponse of(byte[] body, String etag) {
+		return new CachedResponse(body, etag, new long[0], 0, false);
+	}
+}
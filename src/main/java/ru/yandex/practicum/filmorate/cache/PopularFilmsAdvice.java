@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.List;
+
+// передает фильтру кэша список популярных фильмов до сериализации: состав списка и число лайков
+// берутся из объектов, а не разбором готового JSON, и кэш по-прежнему не зависит от контроллера
+@RestControllerAdvice
+@Profile("!reactive")
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class PopularFilmsAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+								  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+								  ServerHttpRequest request, ServerHttpResponse response) {
+		if (body instanceof List<?> films && request instanceof ServletServerHttpRequest servletRequest
+				&& servletRequest.getServletRequest().getAttribute(ResponseCacheFilter.CACHE_KEY_ATTRIBUTE)
+				instanceof String key && ResponseCache.isPopularKey(key)) {
+			servletRequest.getServletRequest().setAttribute(ResponseCacheFilter.POPULAR_FILMS_ATTRIBUTE, films);
+		}
+		return body;
+	}
+}
@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.EntityChangeListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+// ограниченный по объему кэш готовых JSON-ответов. записи удаляются точечно по событиям изменения:
+// фильм - при изменении фильма и его лайков, пользователь - при изменении пользователя и его друзей,
+// список популярных - только если изменение может поменять его состав или содержимое
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCache implements EntityChangeListener {
+
+	private static final String FILM = "film:";
+	private static final String USER = "user:";
+	private static final String POPULAR = "popular:";
+	private static final int EPOCH_STRIPES = 1024;
+
+	private final Cache<String, CachedResponse> cache;
+	// счетчики изменений: ответ, вычисленный до изменения, не должен попасть в кэш после его очистки.
+	// перед вычислением ответа запоминается счетчик ключа, после записи в кэш он сверяется еще раз
+	private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_STRIPES);
+	// у списков популярных общий счетчик: при изменении лайков заранее неизвестно, какие списки затронуты
+	private final AtomicLong popularEpoch = new AtomicLong();
+
+	public ResponseCache(@Value("${filmorate.cache.max-bytes:67108864}") long maxBytes,
+						 @Value("${filmorate.cache.ttl:10m}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.weigher((String key, CachedResponse response) -> key.length() + response.getBody().length)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+	}
+
+	public static String filmKey(long filmId) {
+		return FILM + filmId;
+	}
+
+	public static String userKey(long userId) {
+		return USER + userId;
+	}
+
+	public static String popularKey(int count) {
+		return POPULAR + count;
+	}
+
+	public static boolean isPopularKey(String key) {
+		return key.startsWith(POPULAR);
+	}
+
+	public CachedResponse get(String key) {
+		return cache.getIfPresent(key);
+	}
+
+	// вызывается до вычисления ответа; результат передается в put
+	public long stamp(String key) {
+		return key.startsWith(POPULAR) ? popularEpoch.get() : epochs.get(stripe(key));
+	}
+
+	// popularFilms - список, из которого сериализован ответ для списка популярных (для остальных ключей не нужен)
+	public void put(String key, byte[] body, String etag, List<?> popularFilms, long stamp) {
+		CachedResponse response;
+		if (key.startsWith(POPULAR)) {
+			if (popularFilms == null) {
+				return;
+			}
+			response = popularResponse(key, body, etag, popularFilms);
+		} else {
+			response = CachedResponse.of(body, etag);
+		}
+		cache.put(key, response);
+		if (stamp(key) != stamp) {
+			// данные изменились, пока вычислялся ответ: запись могла устареть
+			cache.asMap().remove(key, response);
+		}
+	}
+
+	public Map<String, Object> stats() {
+		CacheStats stats = cache.stats();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("hits", stats.hitCount());
+		result.put("misses", stats.missCount());
+		result.put("hitRate", stats.hitRate());
+		result.put("evictions", stats.evictionCount());
+		result.put("size", cache.estimatedSize());
+		return result;
+	}
+
+	@Override
+	public void filmCreated(long filmId) {
+		invalidate(filmKey(filmId));
+		// новый фильм без лайков попадает только в неполные списки
+		invalidatePopular(response -> !response.isFull());
+	}
+
+	@Override
+	public void filmUpdated(long filmId) {
+		invalidate(filmKey(filmId));
+		invalidatePopular(response -> contains(response, filmId));
+	}
+
+	@Override
+	public void likesChanged(long filmId, int likesCount) {
+		invalidate(filmKey(filmId));
+		// фильм вне списка может войти в него, только если лайков у него не меньше, чем у последнего в списке
+		invalidatePopular(response -> contains(response, filmId) || !response.isFull()
+				|| likesCount >= response.getMinLikes());
+	}
+
+	@Override
+	public void userUpdated(long userId) {
+		invalidate(userKey(userId));
+	}
+
+	@Override
+	public void friendshipChanged(long userId, long friendId) {
+		invalidate(userKey(userId));
+		invalidate(userKey(friendId));
+	}
+
+	@Override
+	public void bulkChanged() {
+		for (int i = 0; i < EPOCH_STRIPES; i++) {
+			epochs.incrementAndGet(i);
+		}
+		popularEpoch.incrementAndGet();
+		cache.invalidateAll();
+	}
+
+	private void invalidate(String key) {
+		epochs.incrementAndGet(stripe(key));
+		cache.invalidate(key);
+	}
+
+	private void invalidatePopular(Predicate<CachedResponse> affected) {
+		popularEpoch.incrementAndGet();
+		cache.asMap().forEach((key, response) -> {
+			if (key.startsWith(POPULAR) && affected.test(response)) {
+				cache.asMap().remove(key, response);
+			}
+		});
+	}
+
+	private static boolean contains(CachedResponse response, long filmId) {
+		return Arrays.binarySearch(response.getFilmIds(), filmId) >= 0;
+	}
+
+	private static int stripe(String key) {
+		return Math.floorMod(key.hashCode(), EPOCH_STRIPES);
+	}
+
+	// состав списка и число лайков берутся из фильмов, из которых сериализован ответ. лайк, поставленный
+	// между сериализацией и этим вызовом, меняет счетчик списков, и put сразу удалит запись
+	private static CachedResponse popularResponse(String key, byte[] body, String etag, List<?> films) {
+		long[] ids = new long[films.size()];
+		int minLikes = Integer.MAX_VALUE;
+		for (int i = 0; i < ids.length; i++) {
+			Film film = (Film) films.get(i);
+			ids[i] = film.getId();
+			minLikes = Math.min(minLikes, film.getLikes().size());
+		}
+		Arrays.sort(ids);
+		int count = Integer.parseInt(key.substring(POPULAR.length()));
+		return new CachedResponse(body, etag, ids, ids.length == 0 ? 0 : minLikes, ids.length >= count);
+	}
+}
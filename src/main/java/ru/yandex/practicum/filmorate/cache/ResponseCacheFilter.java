@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// отдает GET /films/{id}, /users/{id} и /films/popular из кэша без обращения к сервису и сериализации;
+// при промахе ответ контроллера копируется в кэш
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+	// ключ кэша запроса, по которому ответ будет сохранен в кэш
+	public static final String CACHE_KEY_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".key";
+	// список популярных фильмов, из которого сериализован ответ (см. PopularFilmsAdvice)
+	public static final String POPULAR_FILMS_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".popularFilms";
+
+	private static final Pattern ENTITY_PATH = Pattern.compile("/(films|users)/(\\d{1,18})");
+	private static final String POPULAR_PATH = "/films/popular";
+	private static final int DEFAULT_POPULAR_COUNT = 10;
+
+	private final ResponseCache responseCache;
+
+	// в кэше только JSON: запрос, который не принимает JSON, уходит к контроллеру, и тип ответа
+	// согласует Spring (например, 406 Not Acceptable), а ответ в кэш не попадает
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !HttpMethod.GET.matches(request.getMethod()) || !acceptsJson(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String key = cacheKey(request);
+		if (key == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		CachedResponse cached = responseCache.get(key);
+		if (cached != null) {
+			response.setHeader("X-Cache", "HIT");
+			// условный запрос проверяется по сохраненному тегу: совпадение - 304 без тела
+			if (cached.getEtag() != null
+					&& new ServletWebRequest(request, response).checkNotModified(cached.getEtag())) {
+				return;
+			}
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			response.setContentLength(cached.getBody().length);
+			response.getOutputStream().write(cached.getBody());
+			return;
+		}
+
+		long stamp = responseCache.stamp(key);
+		request.setAttribute(CACHE_KEY_ATTRIBUTE, key);
+		ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		wrapper.setHeader("X-Cache", "MISS");
+		chain.doFilter(request, wrapper);
+		byte[] body = wrapper.getContentAsByteArray();
+		// ответы об ошибках и пустые результаты ("null") не кэшируются
+		if (wrapper.getStatus() == HttpServletResponse.SC_OK && body.length > 0
+				&& (body[0] == '{' || body[0] == '[')) {
+			responseCache.put(key, body, wrapper.getHeader(HttpHeaders.ETAG),
+					(List<?>) request.getAttribute(POPULAR_FILMS_ATTRIBUTE), stamp);
+		}
+		wrapper.copyBodyToResponse();
+	}
+
+	private static boolean acceptsJson(HttpServletRequest request) {
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		if (accept == null || accept.isBlank()) {
+			return true;
+		}
+		try {
+			for (MediaType type : MediaType.parseMediaTypes(accept)) {
+				if (type.getQualityValue() > 0 && type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+					return true;
+				}
+			}
+		} catch (InvalidMediaTypeException e) {
+			// ошибку в заголовке обрабатывает Spring
+		}
+		return false;
+	}
+
+	private static String cacheKey(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		if (POPULAR_PATH.equals(path)) {
+			String count = request.getParameter("count");
+			if (request.getParameterMap().size() > (count == null ? 0 : 1)) {
+				return null;
+			}
+			try {
+				return ResponseCache.popularKey(count == null ? DEFAULT_POPULAR_COUNT : Integer.parseInt(count));
+			} catch (NumberFormatException e) {
+				// неверный параметр обрабатывает контроллер
+				return null;
+			}
+		}
+		Matcher matcher = ENTITY_PATH.matcher(path);
+		if (!matcher.matches() || request.getQueryString() != null) {
+			return null;
+		}
+		long id = Long.parseLong(matcher.group(2));
+		return "films".equals(matcher.group(1)) ? ResponseCache.filmKey(id) : ResponseCache.userKey(id);
+	}
+}
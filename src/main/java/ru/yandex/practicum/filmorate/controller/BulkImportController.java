@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// пакетная загрузка: тело запроса - JSON-массив или NDJSON (одна запись в строке)
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class BulkImportController {
+
+	private static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+	private static final String NDJSON = MediaType.APPLICATION_NDJSON_VALUE;
+
+	private final BulkImportService bulkImportService;
+
+	@PostMapping(value = "/films/bulk", consumes = {JSON, NDJSON})
+	public ImportReport importFilms(InputStream body) throws IOException {
+		return bulkImportService.importFilms(body);
+	}
+
+	@PostMapping(value = "/users/bulk", consumes = {JSON, NDJSON})
+	public ImportReport importUsers(InputStream body) throws IOException {
+		return bulkImportService.importUsers(body);
+	}
+
+	// записи вида {"filmId": 1, "userId": 2}
+	@PostMapping(value = "/films/likes/bulk", consumes = {JSON, NDJSON})
+	public ImportReport importLikes(InputStream body) throws IOException {
+		return bulkImportService.importLikes(body);
+	}
+
+	// записи вида {"userId": 1, "friendId": 2}
+	@PostMapping(value = "/users/friends/bulk", consumes = {JSON, NDJSON})
+	public ImportReport importFriendships(InputStream body) throws IOException {
+		return bulkImportService.importFriendships(body);
+	}
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+
+import java.util.Map;
+
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheController {
+
+	private final ResponseCache responseCache;
+
+	// попадания, промахи, доля попаданий, вытеснения по объему и число записей кэша ответов
+	@GetMapping("/cache/stats")
+	public Map<String, Object> stats() {
+		return responseCache.stats();
+	}
+}
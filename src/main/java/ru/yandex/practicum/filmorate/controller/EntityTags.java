@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToLongFunction;
+
+// строгий ETag списка: хэш id и версий записей в порядке ответа. тело ответа определяется только ими,
+// поэтому тег вычисляется без сериализации. соль меняется при каждом запуске: после перезапуска
+// версии восстановленных записей могут не совпасть с прежними
+final class EntityTags {
+
+	private static final long SALT = ThreadLocalRandom.current().nextLong();
+
+	private EntityTags() {
+	}
+
+	static <T> String of(List<T> items, ToLongFunction<T> id, ToLongFunction<T> version) {
+		long hash = SALT;
+		for (T item : items) {
+			hash = mix(hash, id.applyAsLong(item));
+			hash = mix(hash, version.applyAsLong(item));
+		}
+		return "\"" + Long.toHexString(hash) + "-" + Integer.toHexString(items.size()) + "\"";
+	}
+
+	private static long mix(long hash, long value) {
+		long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 31);
+	}
+}
@@ -1,21 +1,33 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 import ru.yandex.practicum.filmorate.exception.*;
 
 import java.util.Map;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ErrorHandler  {
 
+	private final MeterRegistry meterRegistry;
+
 	@ExceptionHandler
 	@ResponseStatus(HttpStatus.NOT_FOUND)
 	public Map<String, String> handleDuplicatedDataException(final DuplicatedDataException e) {
+		count(e);
 		log.error("Ошибка с задвоением входных параметров: {}.", e.getMessage());
 		return Map.of(
 				"error", "Ошибка с входными параметрами.",
@@ -26,6 +38,7 @@ public class ErrorHandler  {
 	@ExceptionHandler
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
 	public Map<String, String> handleConditionsNotMetException(final ConditionsNotMetException e) {
+		count(e);
 		log.error("Ошибка с данными параметров: {}.", e.getMessage());
 		return Map.of(
 				"error", "Ошибка с входными параметрами.",
@@ -33,9 +46,24 @@ public class ErrorHandler  {
 		);
 	}
 
+	// ошибки разбора запроса в Spring (например, ?minDuration=abc или нечитаемое тело): без этого
+	// обработчика их перехватил бы handleThrowable и ответил 500
+	@ExceptionHandler({BindException.class, TypeMismatchException.class, MissingServletRequestParameterException.class,
+			HttpMessageNotReadableException.class, ServerWebInputException.class})
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public Map<String, String> handleRequestBindingException(final Exception e) {
+		count(e);
+		log.error("Ошибка разбора запроса: {}.", e.getMessage());
+		return Map.of(
+				"error", "Ошибка с входными параметрами.",
+				"description", describe(e)
+		);
+	}
+
 	@ExceptionHandler
 	@ResponseStatus(HttpStatus.NOT_FOUND)
 	public Map<String, String> handleNotFoundException(final NotFoundException e) {
+		count(e);
 		log.error("Ошибка с входными параметрами: {}.", e.getMessage());
 		return Map.of(
 				"error", "Ошибка с входными параметрами.",
@@ -46,10 +74,32 @@ public class ErrorHandler  {
 	@ExceptionHandler
 	@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
 	public Map<String, String> handleThrowable(final Throwable e) {
+		count(e);
 		log.error("Возникла ошибка: {}.", e.getMessage());
 		return Map.of(
 				"error", "Возникла ошибка сервера.",
 				"description", e.getMessage()
 		);
 	}
-}
\ No newline at end of file
+
+	private static String describe(Exception e) {
+		if (e instanceof BindException bind && bind.getFieldError() != null) {
+			return "Неверное значение параметра " + bind.getFieldError().getField() + ".";
+		}
+		if (e instanceof MethodArgumentTypeMismatchException mismatch) {
+			return "Неверное значение параметра " + mismatch.getName() + ".";
+		}
+		if (e instanceof MissingServletRequestParameterException missing) {
+			return "Не указан параметр " + missing.getParameterName() + ".";
+		}
+		if (e instanceof ServerWebInputException input) {
+			return input.getReason();
+		}
+		return "Запрос не удалось разобрать.";
+	}
+
+	// счетчик filmorate.errors с типом исключения: число разных типов ограничено классами приложения и Spring
+	private void count(Throwable e) {
+		meterRegistry.counter("filmorate.errors", "exception", e.getClass().getSimpleName()).increment();
+	}
+}
@@ -1,8 +1,13 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.Collection;
@@ -10,15 +15,36 @@ import java.util.List;
 import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/films")
 @RequiredArgsConstructor
 public class FilmController {
 
 	private final FilmService filmService;
+	private final NdjsonWriter ndjsonWriter;
 
+	// все фильмы или выборка по диапазонам, например ?releasedFrom=1990-01-01&releasedTo=2000-12-31&maxDuration=120
 	@GetMapping
-	public Collection<Film> findAll() {
-		return filmService.findAll();
+	public Collection<Film> findAll(FilmFilter filter) {
+		return filmService.findAll(filter);
+	}
+
+	// постраничное чтение по курсору: следующая страница запрашивается с after = id последней записи
+	@GetMapping(params = "limit")
+	public List<Film> findPage(@RequestParam(defaultValue = "0") long after,
+							  @RequestParam int limit) {
+		return filmService.findPage(after, limit);
+	}
+
+	// потоковая выгрузка фильмов в формате NDJSON: по одному фильму в строке. без условий - все фильмы
+	// страницами по курсору, с условиями - та же выборка по диапазонам, что и в findAll; неверные условия
+	// отклоняются до начала ответа
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody streamAll(FilmFilter filter) {
+		if (filter.isEmpty()) {
+			return ndjsonWriter.stream(filmService::findPage, Film::getId);
+		}
+		return ndjsonWriter.stream(filmService.findAll(filter));
 	}
 
 	// вспомогательный метод для поиска фильма по id
@@ -37,6 +63,20 @@ public class FilmController {
 		return filmService.update(newFilm);
 	}
 
+	// фильмы с наибольшим числом лайков за последний час, сутки или неделю
+	@GetMapping("/trending")
+	public List<Film> getTrending(@RequestParam(defaultValue = "24h") String window,
+								  @RequestParam(defaultValue = "10") int count) {
+		return filmService.getTrending(window, count);
+	}
+
+	// поиск по словам названия и описания; последнее слово можно не дописывать (автодополнение)
+	@GetMapping("/search")
+	public List<Film> search(@RequestParam String q,
+							 @RequestParam(defaultValue = "20") int limit) {
+		return filmService.search(q, limit);
+	}
+
 	@PutMapping("/{id}/like/{userId}")
 	public void addLike(@PathVariable long id,
 						@PathVariable long userId) {
@@ -49,8 +89,12 @@ public class FilmController {
 		filmService.deleteLike(id, userId);
 	}
 
+	// если тег из If-None-Match совпадает, Spring отвечает 304 и не сериализует список
 	@GetMapping("/popular")
-	public List<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
-		return filmService.getMostLiked(count);
+	public ResponseEntity<List<Film>> getPopular(@RequestParam(defaultValue = "10") int count) {
+		List<Film> films = filmService.getMostLiked(count);
+		return ResponseEntity.ok()
+				.eTag(EntityTags.of(films, Film::getId, Film::getVersion))
+				.body(films);
 	}
 }
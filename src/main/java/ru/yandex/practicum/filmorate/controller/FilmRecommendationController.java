@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class FilmRecommendationController {
+
+	private final FilmService filmService;
+
+	// фильмы, которые лайкают пользователи с похожими лайками; уже лайкнутые пользователем не предлагаются
+	@GetMapping("/users/{id}/films/recommended")
+	public List<Film> getRecommended(@PathVariable long id,
+									 @RequestParam(defaultValue = "10") int limit) {
+		return filmService.getRecommended(id, limit);
+	}
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+// потоковая выгрузка в формате NDJSON (одна запись JSON в строке): записи читаются из хранилища
+// страницами по курсору и пишутся прямо в поток ответа, поэтому память не зависит от числа записей
+@Component
+public class NdjsonWriter {
+
+	private static final int PAGE_SIZE = 1000;
+
+	private final ObjectWriter writer;
+
+	public NdjsonWriter(ObjectMapper objectMapper) {
+		// сброс буфера делается один раз на страницу, а не после каждой записи
+		this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	// pages - чтение страницы (afterId, limit), idOf - id записи для курсора следующей страницы
+	public <T> StreamingResponseBody stream(BiFunction<Long, Integer, List<T>> pages, ToLongFunction<T> idOf) {
+		return output -> {
+			try (JsonGenerator generator = createGenerator(output)) {
+				long afterId = 0;
+				List<T> page;
+				do {
+					page = pages.apply(afterId, PAGE_SIZE);
+					write(generator, page);
+					if (!page.isEmpty()) {
+						afterId = idOf.applyAsLong(page.get(page.size() - 1));
+					}
+					generator.flush();
+				} while (page.size() == PAGE_SIZE);
+			}
+		};
+	}
+
+	// уже прочитанная выборка, например по условиям, для которых нет чтения страницами
+	public <T> StreamingResponseBody stream(Collection<T> values) {
+		return output -> {
+			try (JsonGenerator generator = createGenerator(output)) {
+				write(generator, values);
+			}
+		};
+	}
+
+	private JsonGenerator createGenerator(OutputStream output) throws IOException {
+		JsonGenerator generator = writer.createGenerator(output);
+		// записи разделяются только переводом строки, без пробела, который Jackson ставит между корневыми значениями
+		generator.setRootValueSeparator(null);
+		return generator;
+	}
+
+	private <T> void write(JsonGenerator generator, Collection<T> values) throws IOException {
+		for (T value : values) {
+			writer.writeValue(generator, value);
+			generator.writeRaw('\n');
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+// вариант FilmController на WebFlux (профиль reactive)
+@RestController
+@RequestMapping("/films")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+
+	private final ReactiveFilmService filmService;
+
+	// JSON-массив или NDJSON пишется по мере чтения страниц из хранилища; с условиями filter - выборка
+	// по диапазонам даты релиза и продолжительности
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+	public Flux<Film> findAll(FilmFilter filter) {
+		return filmService.findAll(filter);
+	}
+
+	@GetMapping("/{id}")
+	public Mono<Film> findFilmById(@PathVariable Long id) {
+		return filmService.findFilmById(id);
+	}
+
+	@PostMapping
+	public Mono<Film> create(@RequestBody Film film) {
+		return filmService.create(film);
+	}
+
+	@PutMapping
+	public Mono<Film> update(@RequestBody Film newFilm) {
+		return filmService.update(newFilm);
+	}
+
+	@GetMapping("/trending")
+	public Flux<Film> getTrending(@RequestParam(defaultValue = "24h") String window,
+								  @RequestParam(defaultValue = "10") int count) {
+		return filmService.getTrending(window, count);
+	}
+
+	@GetMapping("/search")
+	public Flux<Film> search(@RequestParam String q,
+							 @RequestParam(defaultValue = "20") int limit) {
+		return filmService.search(q, limit);
+	}
+
+	@PutMapping("/{id}/like/{userId}")
+	public Mono<Void> addLike(@PathVariable long id,
+							  @PathVariable long userId) {
+		return filmService.addLike(id, userId);
+	}
+
+	@DeleteMapping("/{id}/like/{userId}")
+	public Mono<Void> deleteLike(@PathVariable long id,
+								 @PathVariable long userId) {
+		return filmService.deleteLike(id, userId);
+	}
+
+	@GetMapping("/popular")
+	public Flux<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
+		return filmService.getMostLiked(count);
+	}
+}
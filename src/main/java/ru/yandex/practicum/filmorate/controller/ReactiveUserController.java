@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+
+// вариант UserController на WebFlux (профиль reactive)
+@RestController
+@RequestMapping("/users")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+	private final ReactiveUserService userService;
+
+	// JSON-массив или NDJSON пишется по мере чтения страниц из хранилища
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+	public Flux<User> findAll() {
+		return userService.findAll();
+	}
+
+	@GetMapping("/{id}")
+	public Mono<User> findUserById(@PathVariable Long id) {
+		return userService.findUserById(id);
+	}
+
+	@PostMapping
+	public Mono<User> create(@RequestBody User user) {
+		return userService.create(user);
+	}
+
+	@PutMapping
+	public Mono<User> update(@RequestBody User newUser) {
+		return userService.update(newUser);
+	}
+
+	@PutMapping("/{id}/friends/{friendId}")
+	public Mono<Void> addFriend(@PathVariable long id,
+								@PathVariable long friendId) {
+		return userService.addFriend(id, friendId);
+	}
+
+	@DeleteMapping("/{id}/friends/{friendId}")
+	public Mono<Void> deleteFriend(@PathVariable long id,
+								   @PathVariable long friendId) {
+		return userService.deleteFriend(id, friendId);
+	}
+
+	@GetMapping(value = "/{id}/friends", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+	public Flux<User> getUserFriends(@PathVariable long id) {
+		return userService.getUserFriends(id);
+	}
+
+	@GetMapping("/{id}/friends/common/{otherId}")
+	public Flux<User> getCommonFriends(@PathVariable long id,
+									   @PathVariable long otherId) {
+		return userService.getCommonFriends(id, otherId);
+	}
+
+	@GetMapping("/{id}/recommendations")
+	public Flux<User> getRecommendations(@PathVariable long id,
+										 @RequestParam(defaultValue = "10") int limit) {
+		return userService.getRecommendations(id, limit);
+	}
+
+	@GetMapping("/{id}/friends/common/{otherId}/count")
+	public Mono<Integer> countCommonFriends(@PathVariable long id,
+											@PathVariable long otherId) {
+		return userService.countCommonFriends(id, otherId);
+	}
+}
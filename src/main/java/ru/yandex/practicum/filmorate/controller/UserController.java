@@ -1,7 +1,11 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
@@ -10,17 +14,32 @@ import java.util.List;
 import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
 
 	private final UserService userService;
+	private final NdjsonWriter ndjsonWriter;
 
 	@GetMapping
 	public Collection<User> findAll() {
 		return userService.findAll();
 	}
 
+	// постраничное чтение по курсору: следующая страница запрашивается с after = id последней записи
+	@GetMapping(params = "limit")
+	public List<User> findPage(@RequestParam(defaultValue = "0") long after,
+							  @RequestParam int limit) {
+		return userService.findPage(after, limit);
+	}
+
+	// потоковая выгрузка всех пользователей в формате NDJSON: по одному пользователю в строке
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody streamAll() {
+		return ndjsonWriter.stream(userService::findPage, User::getId);
+	}
+
 	// вспомогательный метод для поиска пользователя по id
 	@GetMapping("/{id}")
 	public Optional<User> findUserById(@PathVariable Long id) {
@@ -49,9 +68,13 @@ public class UserController {
 		userService.deleteFriend(id, friendId);
 	}
 
+	// если тег из If-None-Match совпадает, Spring отвечает 304 и не сериализует список
 	@GetMapping("/{id}/friends")
-	public List<User> getUserFriends(@PathVariable long id) {
-		return userService.getUserFriends(id);
+	public ResponseEntity<List<User>> getUserFriends(@PathVariable long id) {
+		List<User> friends = userService.getUserFriends(id);
+		return ResponseEntity.ok()
+				.eTag(EntityTags.of(friends, User::getId, User::getVersion))
+				.body(friends);
 	}
 
 	@GetMapping("/{id}/friends/common/{otherId}")
@@ -59,4 +82,17 @@ public class UserController {
 									   @PathVariable long otherId) {
 		return userService.getCommonFriends(id, otherId);
 	}
+
+	// рекомендации друзей: друзья друзей по убыванию числа общих друзей
+	@GetMapping("/{id}/recommendations")
+	public List<User> getRecommendations(@PathVariable long id,
+										 @RequestParam(defaultValue = "10") int limit) {
+		return userService.getRecommendations(id, limit);
+	}
+
+	@GetMapping("/{id}/friends/common/{otherId}/count")
+	public int countCommonFriends(@PathVariable long id,
+								  @PathVariable long otherId) {
+		return userService.countCommonFriends(id, otherId);
+	}
 }
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+// метрики приложения, доступны в формате Prometheus по /actuator/prometheus:
+// filmorate.service - время методов сервисов с @Timed (теги class, method, exception),
+// filmorate.storage.* - размеры хранилищ, filmorate.errors - ошибки, обработанные ErrorHandler
+@Configuration
+public class MetricsConfiguration {
+
+	// обрабатывает @Timed на классах сервисов; class - простое имя класса, как exception у filmorate.errors
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry registry) {
+		return new TimedAspect(registry, MetricsConfiguration::serviceTags);
+	}
+
+	// значения считываются при каждом опросе метрик; в хранилище в памяти это чтение счетчиков,
+	// в базе - запросы COUNT(*)
+	@Bean
+	public MeterBinder storageMetrics(FilmStorage filmStorage, UserStorage userStorage) {
+		return registry -> {
+			Gauge.builder("filmorate.storage.films", filmStorage, FilmStorage::count)
+					.description("Число фильмов")
+					.register(registry);
+			Gauge.builder("filmorate.storage.likes", filmStorage, FilmStorage::countLikes)
+					.description("Число лайков")
+					.register(registry);
+			Gauge.builder("filmorate.storage.users", userStorage, UserStorage::count)
+					.description("Число пользователей")
+					.register(registry);
+			Gauge.builder("filmorate.storage.friendships", userStorage, UserStorage::countFriendships)
+					.description("Число пар друзей")
+					.register(registry);
+		};
+	}
+
+	private static Iterable<Tag> serviceTags(ProceedingJoinPoint joinPoint) {
+		Signature signature = joinPoint.getStaticPart().getSignature();
+		return Tags.of("class", signature.getDeclaringType().getSimpleName(), "method", signature.getName());
+	}
+}
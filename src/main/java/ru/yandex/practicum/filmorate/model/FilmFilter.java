@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+// условия выборки фильмов из параметров запроса GET /films; незаданное условие не ограничивает выборку.
+// границы включительные, даты - в формате yyyy-MM-dd
+@Data
+public class FilmFilter {
+	protected String releasedFrom;
+	protected String releasedTo;
+	protected Integer minDuration;
+	protected Integer maxDuration;
+
+	public boolean isEmpty() {
+		return releasedFrom == null && releasedTo == null && minDuration == null && maxDuration == null;
+	}
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// дружба двух пользователей, используется при пакетной загрузке
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Friendship {
+	protected Long userId;
+	protected Long friendId;
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// отчет о пакетной загрузке
+@Data
+public class ImportReport {
+	protected int imported;
+	protected int failed;
+	protected List<ImportResult> results = new ArrayList<>();
+
+	public void add(ImportResult result) {
+		results.add(result);
+		if (result.getError() == null) {
+			imported++;
+		} else {
+			failed++;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+// результат загрузки одной записи: id сохраненной записи или текст ошибки
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResult {
+	// порядковый номер записи во входных данных, начиная с 0
+	protected int index;
+	protected Long id;
+	protected String error;
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// лайк фильму от пользователя, используется при пакетной загрузке
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Like {
+	protected Long filmId;
+	protected Long userId;
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// окно для рейтинга фильмов по лайкам за последнее время
+public enum TrendingWindow {
+	HOUR("1h", Duration.ofHours(1)),
+	DAY("24h", Duration.ofDays(1)),
+	WEEK("7d", Duration.ofDays(7));
+
+	private final String name;
+	private final Duration duration;
+
+	TrendingWindow(String name, Duration duration) {
+		this.name = name;
+		this.duration = duration;
+	}
+
+	public Duration getDuration() {
+		return duration;
+	}
+
+	public static Optional<TrendingWindow> of(String name) {
+		for (TrendingWindow window : values()) {
+			if (window.name.equals(name)) {
+				return Optional.of(window);
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
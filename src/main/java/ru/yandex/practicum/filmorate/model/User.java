@@ -1,19 +1,46 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Tolerate;
+import ru.yandex.practicum.filmorate.util.IsoDateDeserializer;
+import ru.yandex.practicum.filmorate.util.IsoDateSerializer;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
 
-import java.util.Set;
-
+// конструктор без параметров - для Jackson: поля читаются через сеттеры, и действуют их аннотации
+// (например, разбор дат); через конструктор со всеми параметрами они бы не применялись
+@JsonIgnoreProperties(value = "version", allowGetters = false, allowSetters = false)
 @Data
 @EqualsAndHashCode(of = {"email"})
-@Builder
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 public class User {
-	protected Set<Long> friends;
+	protected SortedLongSet friends;
 	protected Long id;
 	protected String email;
 	protected String login;
 	protected String name;
-	protected String birthday;
+	// номер дня (см. IsoDates), IsoDates.NONE - дата не указана; в JSON - строка yyyy-MM-dd
+	@JsonSerialize(using = IsoDateSerializer.class)
+	@JsonDeserialize(using = IsoDateDeserializer.class)
+	protected int birthday;
+	// версия растет при каждом изменении пользователя, включая друзей; volatile - читается без блокировок.
+	// наружу выходит только через ETag и из запросов не принимается
+	protected volatile long version;
+
+	public static class UserBuilder {
+		// дата строкой yyyy-MM-dd: пустая - IsoDates.NONE, в неверном формате - IsoDates.INVALID
+		@Tolerate
+		public UserBuilder birthday(String date) {
+			return birthday(IsoDates.parse(date));
+		}
+	}
 }
@@ -0,0 +1,191 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.validator.FilmValidator;
+import ru.yandex.practicum.filmorate.validator.UserValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// пакетная загрузка записей из JSON-массива или NDJSON: записи читаются потоком частями по CHUNK_SIZE,
+// каждая часть проверяется параллельно и сохраняется в хранилище одним пакетом
+@Service
+@Timed(value = "filmorate.service", histogram = true)
+@Slf4j
+public class BulkImportService {
+
+	private static final int CHUNK_SIZE = 10_000;
+	private static final int VALIDATION_SLICE = 500;
+
+	private final FilmStorage filmStorage;
+	private final UserStorage userStorage;
+	private final ObjectMapper objectMapper;
+	// при spring.threads.virtual.enabled=true это виртуальные потоки, поэтому проверки,
+	// которые ходят в базу (существование пользователей и фильмов), не занимают потоки платформы
+	private final Executor validationExecutor;
+	private final FilmValidator filmValidator = new FilmValidator();
+	private final UserValidator userValidator = new UserValidator();
+	private EntityChangeListener changeListener = EntityChangeListener.NONE;
+
+	public BulkImportService(FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper,
+							 @Qualifier("applicationTaskExecutor") Executor validationExecutor) {
+		this.filmStorage = filmStorage;
+		this.userStorage = userStorage;
+		this.objectMapper = objectMapper;
+		this.validationExecutor = validationExecutor;
+	}
+
+	@Autowired(required = false)
+	public void setChangeListener(EntityChangeListener changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	public ImportReport importFilms(InputStream input) throws IOException {
+		// уникальность названий проверяет хранилище при сохранении пакета
+		return importRecords(input, Film.class,
+				film -> filmValidator.validate(film, null, name -> null),
+				filmStorage::createAll);
+	}
+
+	public ImportReport importUsers(InputStream input) throws IOException {
+		return importRecords(input, User.class,
+				user -> userValidator.validate(user, null, email -> null),
+				userStorage::createAll);
+	}
+
+	public ImportReport importLikes(InputStream input) throws IOException {
+		return importRecords(input, Like.class,
+				like -> {
+					findUser(like.getUserId());
+					if (like.getFilmId() == null) {
+						throw new ConditionsNotMetException("Id фильма должен быть указан.");
+					}
+					filmStorage.findFilmById(like.getFilmId());
+				},
+				likes -> {
+					filmStorage.addLikes(likes);
+					return appliedResults(likes.size());
+				});
+	}
+
+	public ImportReport importFriendships(InputStream input) throws IOException {
+		return importRecords(input, Friendship.class,
+				friendship -> {
+					findUser(friendship.getUserId());
+					findUser(friendship.getFriendId());
+				},
+				friendships -> {
+					userStorage.addFriendships(friendships);
+					return appliedResults(friendships.size());
+				});
+	}
+
+	// validator бросает исключение для неверной записи, save сохраняет проверенные записи
+	// и возвращает результат для каждой из них в том же порядке
+	private <T> ImportReport importRecords(InputStream input, Class<T> type, Consumer<T> validator,
+										   Function<List<T>, List<ImportResult>> save) throws IOException {
+		long start = System.nanoTime();
+		ImportReport report = new ImportReport();
+		List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+		// readValues читает и элементы JSON-массива, и значения NDJSON, не загружая весь запрос в память
+		try (MappingIterator<T> records = objectMapper.readerFor(type).readValues(input)) {
+			while (records.hasNextValue()) {
+				chunk.add(records.nextValue());
+				if (chunk.size() == CHUNK_SIZE) {
+					importChunk(chunk, report, validator, save);
+					chunk.clear();
+				}
+			}
+		} catch (JsonProcessingException e) {
+			// после синтаксической ошибки продолжить чтение потока нельзя: сохраняем прочитанное и завершаем
+			log.error("Ошибка разбора записи при пакетной загрузке: {}.", e.getOriginalMessage());
+			importChunk(chunk, report, validator, save);
+			chunk.clear();
+			report.add(ImportResult.builder()
+					.index(report.getResults().size())
+					.error("Запись не разобрана: " + e.getOriginalMessage())
+					.build());
+		}
+		importChunk(chunk, report, validator, save);
+		log.info("Пакетная загрузка {}: сохранено {}, отклонено {} за {} мс.", type.getSimpleName(),
+				report.getImported(), report.getFailed(), (System.nanoTime() - start) / 1_000_000);
+		return report;
+	}
+
+	private <T> void importChunk(List<T> chunk, ImportReport report, Consumer<T> validator,
+								 Function<List<T>, List<ImportResult>> save) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		// проверки не зависят друг от друга и выполняются параллельно частями по VALIDATION_SLICE записей
+		String[] errors = new String[chunk.size()];
+		List<CompletableFuture<Void>> slices = new ArrayList<>();
+		for (int from = 0; from < chunk.size(); from += VALIDATION_SLICE) {
+			int sliceFrom = from;
+			int sliceTo = Math.min(from + VALIDATION_SLICE, chunk.size());
+			slices.add(CompletableFuture.runAsync(() -> {
+				for (int i = sliceFrom; i < sliceTo; i++) {
+					try {
+						validator.accept(chunk.get(i));
+					} catch (RuntimeException e) {
+						errors[i] = e.getMessage();
+					}
+				}
+			}, validationExecutor));
+		}
+		CompletableFuture.allOf(slices.toArray(new CompletableFuture[0])).join();
+
+		List<T> valid = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			if (errors[i] == null) {
+				valid.add(chunk.get(i));
+			}
+		}
+		List<ImportResult> saved = valid.isEmpty() ? List.of() : save.apply(valid);
+		if (!valid.isEmpty()) {
+			changeListener.bulkChanged();
+		}
+
+		int offset = report.getResults().size();
+		int next = 0;
+		for (int i = 0; i < chunk.size(); i++) {
+			ImportResult result = errors[i] != null
+					? ImportResult.builder().error(errors[i]).build()
+					: saved.get(next++);
+			result.setIndex(offset + i);
+			report.add(result);
+		}
+	}
+
+	private void findUser(Long userId) {
+		if (userId == null) {
+			throw new ConditionsNotMetException("Id пользователя должен быть указан.");
+		}
+		userStorage.findUserById(userId);
+	}
+
+	private static List<ImportResult> appliedResults(int count) {
+		List<ImportResult> results = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			results.add(ImportResult.builder().build());
+		}
+		return results;
+	}
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.service;
+
+// уведомления об изменениях, сделанных через сервисы; вызываются после успешной записи в хранилище
+public interface EntityChangeListener {
+
+	void filmCreated(long filmId);
+
+	void filmUpdated(long filmId);
+
+	// likesCount - число лайков фильма после изменения
+	void likesChanged(long filmId, int likesCount);
+
+	void userUpdated(long userId);
+
+	void friendshipChanged(long userId, long friendId);
+
+	// изменение множества записей сразу, например пакетная загрузка
+	void bulkChanged();
+
+	EntityChangeListener NONE = new EntityChangeListener() {
+		@Override
+		public void filmCreated(long filmId) {
+		}
+
+		@Override
+		public void filmUpdated(long filmId) {
+		}
+
+		@Override
+		public void likesChanged(long filmId, int likesCount) {
+		}
+
+		@Override
+		public void userUpdated(long userId) {
+		}
+
+		@Override
+		public void friendshipChanged(long userId, long friendId) {
+		}
+
+		@Override
+		public void bulkChanged() {
+		}
+	};
+}
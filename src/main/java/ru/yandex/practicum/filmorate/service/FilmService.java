@@ -1,36 +1,48 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.IsoDates;
 
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class FilmService {
 
+	public static final int MAX_PAGE_SIZE = 1000;
+
 	private final FilmStorage filmStorage;
 	private final UserStorage userStorage;
-	private static final Comparator<Film> FILM_BY_LIKES_COMPARATOR =
-			Comparator.comparing(film -> film.getLikes().size(), Comparator.reverseOrder());
+	private EntityChangeListener changeListener = EntityChangeListener.NONE;
+
+	// слушатель подключается отдельно, чтобы сервис можно было создать без Spring (например, в тестах)
+	@Autowired(required = false)
+	public void setChangeListener(EntityChangeListener changeListener) {
+		this.changeListener = changeListener;
+	}
 
 	public void addLike(Long filmId, Long userId) {
 		userStorage.findUserById(userId)
 				.orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
 		filmStorage.findFilmById(filmId)
-				.orElseThrow(() -> new NotFoundException("Фильм с id " + filmId + " не найден"))
-				.getLikes()
-				.add(userId);
+				.orElseThrow(() -> new NotFoundException("Фильм с id " + filmId + " не найден"));
+		filmStorage.addLike(filmId, userId);
+		likesChanged(filmId);
 		log.info("Фильму с id {} добавлен like пользователя с id {}.", filmId, userId);
 	}
 
@@ -47,31 +59,106 @@ public class FilmService {
 			throw new NotFoundException("Пользователь с id " + userId + " не найден.");
 		}
 
-		film.getLikes().remove(userId);
+		filmStorage.deleteLike(filmId, userId);
+		likesChanged(filmId);
 		log.info("У фильма с id {} удален like пользователя id {}.", filmId, userId);
 	}
 
 	public List<Film> getMostLiked(int count) {
-		return filmStorage.findAll()
-				.stream()
-				.sorted(FILM_BY_LIKES_COMPARATOR)
-				.limit(count)
-				.collect(Collectors.toList());
+		return filmStorage.getMostLiked(count);
+	}
+
+	// window - 1h, 24h или 7d
+	public List<Film> getTrending(String window, int count) {
+		TrendingWindow trendingWindow = TrendingWindow.of(window).orElseThrow(() -> {
+			log.error("Неверное окно рейтинга.");
+			return new ConditionsNotMetException("Окно должно быть одним из: 1h, 24h, 7d.");
+		});
+		return filmStorage.getTrending(trendingWindow, count);
+	}
+
+	public List<Film> search(String query, int limit) {
+		if (query == null || query.isBlank()) {
+			log.error("Пустой поисковый запрос.");
+			throw new ConditionsNotMetException("Поисковый запрос должен быть указан.");
+		}
+		if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+			log.error("Неверное количество результатов поиска.");
+			throw new ConditionsNotMetException("Количество результатов должно быть от 1 до " + MAX_PAGE_SIZE + ".");
+		}
+		return filmStorage.search(query, limit);
+	}
+
+	// рекомендации фильмов по совместным лайкам: фильмы пользователей, чьи лайки больше всего пересекаются с лайками
+	// пользователя
+	public List<Film> getRecommended(Long userId, int limit) {
+		if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+			log.error("Неверное количество рекомендаций.");
+			throw new ConditionsNotMetException("Количество рекомендаций должно быть от 1 до " + MAX_PAGE_SIZE + ".");
+		}
+		userStorage.findUserById(userId)
+				.orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
+		return filmStorage.getRecommended(userId, limit);
 	}
 
 	public Collection<Film> findAll() {
 		return filmStorage.findAll();
 	}
 
+	// все фильмы или, если заданы условия, фильмы в диапазонах даты релиза и продолжительности
+	public Collection<Film> findAll(FilmFilter filter) {
+		if (filter.isEmpty()) {
+			return findAll();
+		}
+		int releasedFrom = parseBound(filter.getReleasedFrom(), Integer.MIN_VALUE);
+		int releasedTo = parseBound(filter.getReleasedTo(), Integer.MAX_VALUE);
+		int minDuration = filter.getMinDuration() != null ? filter.getMinDuration() : Integer.MIN_VALUE;
+		int maxDuration = filter.getMaxDuration() != null ? filter.getMaxDuration() : Integer.MAX_VALUE;
+		if (releasedFrom > releasedTo || minDuration > maxDuration) {
+			log.error("Начало диапазона больше его конца.");
+			throw new ConditionsNotMetException("Начало диапазона должно быть не больше его конца.");
+		}
+		return filmStorage.findByRange(releasedFrom, releasedTo, minDuration, maxDuration);
+	}
+
+	public List<Film> findPage(long afterId, int limit) {
+		if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+			log.error("Неверный размер страницы.");
+			throw new ConditionsNotMetException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ".");
+		}
+		return filmStorage.findPage(afterId, limit);
+	}
+
 	public Optional<Film> findFilmById(Long id) {
 		return filmStorage.findFilmById(id);
 	}
 
 	public Film create(Film film) {
-		return filmStorage.create(film);
+		Film created = filmStorage.create(film);
+		changeListener.filmCreated(created.getId());
+		return created;
 	}
 
 	public Film update(Film newFilm) {
-		return filmStorage.update(newFilm);
+		Film updated = filmStorage.update(newFilm);
+		changeListener.filmUpdated(updated.getId());
+		return updated;
+	}
+
+	// число лайков читается после изменения, чтобы при параллельных лайках слушатель видел актуальное значение
+	private void likesChanged(Long filmId) {
+		if (changeListener != EntityChangeListener.NONE) {
+			changeListener.likesChanged(filmId, filmStorage.findFilmById(filmId).orElseThrow().getLikes().size());
+		}
+	}
+
+	// граница диапазона дат: номер дня или unbounded, если граница не задана
+	private static int parseBound(String date, int unbounded) {
+		int day = IsoDates.parse(date);
+		if (day == IsoDates.INVALID) {
+			log.error("Неверный формат даты диапазона.");
+			throw new ConditionsNotMetException("Укажите даты диапазона в формате yyyy-MM-dd.");
+		}
+		return day == IsoDates.NONE ? unbounded : day;
 	}
-}
\ No newline at end of file
+}
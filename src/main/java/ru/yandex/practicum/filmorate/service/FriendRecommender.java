@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+import ru.yandex.practicum.filmorate.util.TopK;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// рекомендации "друзья друзей": кандидаты - друзья друзей пользователя, которые еще не его друзья,
+// ранжируются по числу общих друзей. счетчики примитивные, из всех кандидатов хранятся только первые limit.
+// время запроса растет с числом просмотренных связей. по умолчанию просматриваются все; если задан предел
+// maxEdges и у друзей пользователя вместе больше maxEdges друзей, просматриваются друзья из случайной выборки,
+// постоянной для пользователя, и число общих друзей оценивается по ней: кандидаты, знакомые только с друзьями
+// вне выборки, не находятся
+final class FriendRecommender {
+
+	// сколько друзей обрабатывает одна задача fork-join
+	private static final int TASK_SIZE = 256;
+
+	private FriendRecommender() {
+	}
+
+	// userFriends - id друзей пользователя, friendsOfFriends - множества друзей каждого из них;
+	// maxEdges - предел просматриваемых связей (0 - без предела); parallelThreshold - с какого числа
+	// просматриваемых друзей подсчет идет частями в ForkJoinPool.commonPool() (0 - всегда последовательно)
+	static long[] recommend(long userId, long[] userFriends, List<SortedLongSet> friendsOfFriends, int limit,
+							int maxEdges, int parallelThreshold) {
+		List<SortedLongSet> scanned = maxEdges > 0 ? sample(userId, friendsOfFriends, maxEdges) : friendsOfFriends;
+		boolean parallel = parallelThreshold > 0 && scanned.size() >= parallelThreshold;
+		LongIntCounter mutualFriends = parallel
+				? ForkJoinPool.commonPool().invoke(new CountTask(scanned, 0, scanned.size()))
+				: count(scanned, 0, scanned.size());
+		// сам пользователь и его друзья исключаются после подсчета: это userFriends.length обращений к счетчику
+		// вместо проверки по списку друзей для каждого ребра
+		mutualFriends.reset(userId);
+		for (long friendId : userFriends) {
+			mutualFriends.reset(friendId);
+		}
+		TopK top = new TopK(limit);
+		top.offerAll(mutualFriends);
+		return top.drainDescending();
+	}
+
+	// друзья в случайном порядке, пока их связи помещаются в maxEdges (хотя бы один друг). порядок зависит
+	// только от userId: повторный запрос дает те же рекомендации, пока не изменились друзья
+	private static List<SortedLongSet> sample(long userId, List<SortedLongSet> friendsOfFriends, int maxEdges) {
+		long edges = 0;
+		for (SortedLongSet friends : friendsOfFriends) {
+			edges += friends.size();
+		}
+		if (edges <= maxEdges) {
+			return friendsOfFriends;
+		}
+		int[] order = new int[friendsOfFriends.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		SplittableRandom random = new SplittableRandom(userId);
+		List<SortedLongSet> sample = new ArrayList<>();
+		long sampledEdges = 0;
+		for (int i = 0; i < order.length; i++) {
+			int j = i + random.nextInt(order.length - i);
+			int index = order[j];
+			order[j] = order[i];
+			SortedLongSet friends = friendsOfFriends.get(index);
+			if (!sample.isEmpty() && sampledEdges + friends.size() > maxEdges) {
+				break;
+			}
+			sample.add(friends);
+			sampledEdges += friends.size();
+		}
+		return sample;
+	}
+
+	private static LongIntCounter count(List<SortedLongSet> friendsOfFriends, int from, int to) {
+		int edges = 0;
+		for (int i = from; i < to; i++) {
+			edges += friendsOfFriends.get(i).size();
+		}
+		LongIntCounter counter = new LongIntCounter(edges);
+		for (int i = from; i < to; i++) {
+			friendsOfFriends.get(i).forEachLong(counter::increment);
+		}
+		return counter;
+	}
+
+	private static class CountTask extends RecursiveTask<LongIntCounter> {
+		private final List<SortedLongSet> friendsOfFriends;
+		private final int from;
+		private final int to;
+
+		CountTask(List<SortedLongSet> friendsOfFriends, int from, int to) {
+			this.friendsOfFriends = friendsOfFriends;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected LongIntCounter compute() {
+			if (to - from <= TASK_SIZE) {
+				return count(friendsOfFriends, from, to);
+			}
+			int middle = (from + to) >>> 1;
+			CountTask left = new CountTask(friendsOfFriends, from, middle);
+			left.fork();
+			LongIntCounter right = new CountTask(friendsOfFriends, middle, to).compute();
+			LongIntCounter leftResult = left.join();
+			// меньший счетчик переносится в больший
+			if (leftResult.size() < right.size()) {
+				right.addAll(leftResult);
+				return right;
+			}
+			leftResult.addAll(right);
+			return leftResult;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+
+// неблокирующий интерфейс к FilmService для профиля reactive: проверки и хранилище те же,
+// блокирующие вызовы выполняются вне потоков обработки запросов
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFilmService {
+
+	private final FilmService filmService;
+
+	public Flux<Film> findAll(FilmFilter filter) {
+		if (filter.isEmpty()) {
+			return ReactivePaging.pages(filmService::findPage, Film::getId);
+		}
+		return ReactivePaging.blocking(() -> filmService.findAll(filter))
+				.flatMapIterable(films -> films);
+	}
+
+	public Mono<Film> findFilmById(Long id) {
+		return ReactivePaging.blocking(() -> filmService.findFilmById(id).orElseThrow());
+	}
+
+	public Mono<Film> create(Film film) {
+		return ReactivePaging.blocking(() -> filmService.create(film));
+	}
+
+	public Mono<Film> update(Film newFilm) {
+		return ReactivePaging.blocking(() -> filmService.update(newFilm));
+	}
+
+	public Mono<Void> addLike(Long filmId, Long userId) {
+		return ReactivePaging.blocking(() -> {
+			filmService.addLike(filmId, userId);
+			return true;
+		}).then();
+	}
+
+	public Mono<Void> deleteLike(Long filmId, Long userId) {
+		return ReactivePaging.blocking(() -> {
+			filmService.deleteLike(filmId, userId);
+			return true;
+		}).then();
+	}
+
+	public Flux<Film> getTrending(String window, int count) {
+		return ReactivePaging.blocking(() -> filmService.getTrending(window, count))
+				.flatMapIterable(films -> films);
+	}
+
+	public Flux<Film> search(String query, int limit) {
+		return ReactivePaging.blocking(() -> filmService.search(query, limit))
+				.flatMapIterable(films -> films);
+	}
+
+	public Flux<Film> getMostLiked(int count) {
+		return ReactivePaging.blocking(() -> filmService.getMostLiked(count))
+				.flatMapIterable(films -> films);
+	}
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// перевод блокирующих вызовов хранилища в Mono/Flux: вызовы выполняются на boundedElastic,
+// а списки читаются страницами только по запросу подписчика (обратное давление)
+final class ReactivePaging {
+
+	static final int PAGE_SIZE = 500;
+
+	private ReactivePaging() {
+	}
+
+	static <T> Mono<T> blocking(Callable<T> call) {
+		return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	// все записи по курсору: следующая страница читается, когда подписчик запросил элементы сверх прочитанных
+	static <T> Flux<T> pages(BiFunction<Long, Integer, List<T>> pages, ToLongFunction<T> idOf) {
+		return Flux.<List<T>, Long>generate(() -> 0L, (afterId, sink) -> {
+					List<T> page = pages.apply(afterId, PAGE_SIZE);
+					if (page.isEmpty()) {
+						sink.complete();
+						return afterId;
+					}
+					sink.next(page);
+					if (page.size() < PAGE_SIZE) {
+						sink.complete();
+					}
+					return idOf.applyAsLong(page.get(page.size() - 1));
+				})
+				.flatMapIterable(Function.identity(), 1)
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	// записи по известному набору id, загружаемые частями по PAGE_SIZE
+	static <T> Flux<T> byIds(long[] ids, Function<List<Long>, List<T>> load) {
+		int pagesCount = (ids.length + PAGE_SIZE - 1) / PAGE_SIZE;
+		return Flux.range(0, pagesCount)
+				.concatMap(page -> blocking(() -> load.apply(Arrays.stream(ids,
+						page * PAGE_SIZE, Math.min((page + 1) * PAGE_SIZE, ids.length)).boxed().toList())), 1)
+				.flatMapIterable(Function.identity(), 1);
+	}
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+// неблокирующий интерфейс к UserService для профиля reactive (см. ReactiveFilmService)
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+	private final UserService userService;
+	private final UserStorage userStorage;
+
+	public Flux<User> findAll() {
+		return ReactivePaging.pages(userService::findPage, User::getId);
+	}
+
+	public Mono<User> findUserById(Long id) {
+		return ReactivePaging.blocking(() -> userService.findUserById(id).orElseThrow());
+	}
+
+	public Mono<User> create(User user) {
+		return ReactivePaging.blocking(() -> userService.create(user));
+	}
+
+	public Mono<User> update(User newUser) {
+		return ReactivePaging.blocking(() -> userService.update(newUser));
+	}
+
+	public Mono<Void> addFriend(Long userId, Long friendId) {
+		return ReactivePaging.blocking(() -> {
+			userService.addFriend(userId, friendId);
+			return true;
+		}).then();
+	}
+
+	public Mono<Void> deleteFriend(Long userId, Long friendId) {
+		return ReactivePaging.blocking(() -> {
+			userService.deleteFriend(userId, friendId);
+			return true;
+		}).then();
+	}
+
+	// друзья загружаются частями по мере запроса подписчика, а не одним списком
+	public Flux<User> getUserFriends(Long userId) {
+		return ReactivePaging.blocking(() -> userService.findUserById(userId).orElseThrow()
+						.getFriends().toLongArray())
+				.flatMapMany(ids -> ReactivePaging.byIds(ids, userStorage::findAllByIds));
+	}
+
+	public Flux<User> getCommonFriends(Long userId, Long otherId) {
+		return ReactivePaging.blocking(() -> userService.findUserById(userId).orElseThrow().getFriends()
+						.intersect(userService.findUserById(otherId).orElseThrow().getFriends()))
+				.flatMapMany(ids -> ReactivePaging.byIds(ids, userStorage::findAllByIds));
+	}
+
+	public Flux<User> getRecommendations(Long userId, int limit) {
+		return ReactivePaging.blocking(() -> userService.getRecommendations(userId, limit))
+				.flatMapIterable(users -> users);
+	}
+
+	public Mono<Integer> countCommonFriends(Long userId, Long otherId) {
+		return ReactivePaging.blocking(() -> userService.countCommonFriends(userId, otherId));
+	}
+}
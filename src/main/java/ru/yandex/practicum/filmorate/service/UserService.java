@@ -1,32 +1,61 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
+	public static final int MAX_PAGE_SIZE = 1000;
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 2000;
+	public static final int DEFAULT_MAX_RECOMMENDATION_EDGES = 0;
+
 	private final UserStorage userStorage;
+	private EntityChangeListener changeListener = EntityChangeListener.NONE;
+	// с какого числа друзей рекомендации считаются параллельно; 0 - всегда последовательно
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	// сколько связей друзей просматривается для рекомендаций; 0 - все (точный подсчет), иначе - оценка по выборке
+	private int maxRecommendationEdges = DEFAULT_MAX_RECOMMENDATION_EDGES;
+
+	// слушатель подключается отдельно, чтобы сервис можно было создать без Spring (например, в тестах)
+	@Autowired(required = false)
+	public void setChangeListener(EntityChangeListener changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	@Value("${filmorate.recommendations.parallel-threshold:" + DEFAULT_PARALLEL_THRESHOLD + "}")
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	@Value("${filmorate.recommendations.max-edges:" + DEFAULT_MAX_RECOMMENDATION_EDGES + "}")
+	public void setMaxRecommendationEdges(int maxRecommendationEdges) {
+		this.maxRecommendationEdges = maxRecommendationEdges;
+	}
 
 	public void addFriend(Long userId, Long friendId) {
-		User user = userStorage.findUserById(userId)
+		userStorage.findUserById(userId)
 				.orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
 
-		User friend = userStorage.findUserById(friendId)
+		userStorage.findUserById(friendId)
 				.orElseThrow(() -> new NotFoundException("Пользователь с id " + friendId + " не найден"));
 
-		user.getFriends().add(friendId);
-		friend.getFriends().add(userId);
+		userStorage.addFriend(userId, friendId);
+		changeListener.friendshipChanged(userId, friendId);
 		log.info("Пользователь с id {} добавил в друзья пользователя с id {}.", userId, friendId);
 	}
 
@@ -43,8 +72,8 @@ public class UserService {
 			throw new ConditionsNotMetException("У пользователя с id " + friendId + " нет друзей");
 		}
 
-		user.getFriends().remove(friendId);
-		friend.getFriends().remove(userId);
+		userStorage.deleteFriend(userId, friendId);
+		changeListener.friendshipChanged(userId, friendId);
 		log.info("Пользователь с id {} удалил из друзей пользователя с id {}.", userId, friendId);
 	}
 
@@ -54,33 +83,66 @@ public class UserService {
 		if (user.getFriends() == null) {
 			throw new ConditionsNotMetException("У пользователя с id " + userId + " нет друзей");
 		}
-		return user.getFriends().stream()
-				.map(id -> userStorage.findUserById(id)
-						.orElseThrow(() -> new NotFoundException("Пользователя с id " + id + " не существует")))
-				.collect(Collectors.toList());
+		return userStorage.findAllByIds(user.getFriends());
 	}
 
 	public List<User> getCommonFriends(Long userId, Long otherId) {
-		Set<Long> userFriendsSet = userStorage.findUserById(userId)
+		SortedLongSet userFriendsSet = userStorage.findUserById(userId)
+				.orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"))
+				.getFriends();
+		SortedLongSet otherUserFriendsSet = userStorage.findUserById(otherId)
+				.orElseThrow(() -> new NotFoundException("Пользователь с id " + otherId + " не найден"))
+				.getFriends();
+
+		long[] common = userFriendsSet.intersect(otherUserFriendsSet);
+
+		return userStorage.findAllByIds(Arrays.stream(common).boxed().toList());
+	}
+
+	public int countCommonFriends(Long userId, Long otherId) {
+		SortedLongSet userFriendsSet = userStorage.findUserById(userId)
 				.orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"))
 				.getFriends();
-		Set<Long> otherUserFriendsSet = userStorage.findUserById(otherId)
+		SortedLongSet otherUserFriendsSet = userStorage.findUserById(otherId)
 				.orElseThrow(() -> new NotFoundException("Пользователь с id " + otherId + " не найден"))
 				.getFriends();
 
-		Set<Long> common = new HashSet<>(userFriendsSet);
-		common.retainAll(otherUserFriendsSet);
+		return userFriendsSet.countCommon(otherUserFriendsSet);
+	}
 
-		return common.stream()
-				.map(id -> userStorage.findUserById(id)
-						.orElseThrow(() -> new NotFoundException("Пользователь с id " + id + " не найден")))
-				.collect(Collectors.toList());
+	// друзья друзей, которые еще не друзья пользователя, по убыванию числа общих друзей
+	// (если задан предел связей filmorate.recommendations.max-edges - по оценке на выборке, см. FriendRecommender)
+	public List<User> getRecommendations(Long userId, int limit) {
+		if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+			log.error("Неверное количество рекомендаций.");
+			throw new ConditionsNotMetException("Количество рекомендаций должно быть от 1 до " + MAX_PAGE_SIZE + ".");
+		}
+		long[] friendIds = userStorage.findUserById(userId)
+				.orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"))
+				.getFriends()
+				.toLongArray();
+		// друзья вместе с их списками друзей загружаются одним обращением к хранилищу
+		List<SortedLongSet> friendsOfFriends = userStorage.findAllByIds(Arrays.stream(friendIds).boxed().toList())
+				.stream()
+				.map(User::getFriends)
+				.toList();
+		long[] recommended = FriendRecommender.recommend(userId, friendIds, friendsOfFriends, limit,
+				maxRecommendationEdges, parallelThreshold);
+		return userStorage.findAllByIds(Arrays.stream(recommended).boxed().toList());
 	}
 
 	public Collection<User> findAll() {
 		return userStorage.findAll();
 	}
 
+	public List<User> findPage(long afterId, int limit) {
+		if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+			log.error("Неверный размер страницы.");
+			throw new ConditionsNotMetException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ".");
+		}
+		return userStorage.findPage(afterId, limit);
+	}
+
 	public Optional<User> findUserById(Long id) {
 		return userStorage.findUserById(id);
 	}
@@ -90,6 +152,8 @@ public class UserService {
 	}
 
 	public User update(User newUser) {
-		return userStorage.update(newUser);
+		User updated = userStorage.update(newUser);
+		changeListener.userUpdated(updated.getId());
+		return updated;
 	}
 }
\ No newline at end of file
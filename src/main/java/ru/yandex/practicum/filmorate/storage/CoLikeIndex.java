@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+import ru.yandex.practicum.filmorate.util.TopK;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// индекс совместных лайков: для каждого фильма - сколько пользователей лайкнули его вместе с каждым другим фильмом.
+// обновляется при каждом изменении лайка за O(число лайков пользователя), запрос рекомендаций суммирует
+// строки индекса по фильмам пользователя. такая сумма для фильма g равна сумме по другим пользователям
+// размера пересечения их лайков с лайками пользователя, если они лайкнули g - то есть фильмы
+// пользователей с наибольшим пересечением лайков получают наибольший вес
+public class CoLikeIndex {
+
+	private final Map<Long, SortedLongSet> filmsByUser = new ConcurrentHashMap<>();
+	private final Map<Long, LongIntCounter> coLikes = new ConcurrentHashMap<>();
+	// изменения лайков одного пользователя сериализуются: иначе пара его фильмов может быть учтена дважды или ни разу
+	private final StripedLock userLocks = new StripedLock();
+
+	// вызывающий код сериализует изменения лайков одного фильма и передает только реальные изменения
+	public void likeChanged(long filmId, long userId, boolean added) {
+		userLocks.lock(userId);
+		try {
+			SortedLongSet films = filmsByUser.computeIfAbsent(userId, id -> new SortedLongSet());
+			if (!added) {
+				films.remove(filmId);
+			}
+			int delta = added ? 1 : -1;
+			LongIntCounter row = row(filmId);
+			films.forEachLong(otherFilmId -> {
+				synchronized (row) {
+					row.add(otherFilmId, delta);
+				}
+				LongIntCounter otherRow = row(otherFilmId);
+				synchronized (otherRow) {
+					otherRow.add(filmId, delta);
+				}
+			});
+			if (added) {
+				films.add(filmId);
+			}
+		} finally {
+			userLocks.unlock(userId);
+		}
+	}
+
+	// id фильмов по убыванию веса, без фильмов, которые пользователь уже лайкнул
+	public long[] recommend(long userId, int limit) {
+		SortedLongSet films = filmsByUser.get(userId);
+		if (films == null || films.isEmpty()) {
+			return new long[0];
+		}
+		long[] liked = films.toLongArray();
+		LongIntCounter scores = new LongIntCounter(64);
+		for (long filmId : liked) {
+			LongIntCounter row = coLikes.get(filmId);
+			if (row == null) {
+				continue;
+			}
+			synchronized (row) {
+				for (int slot = 0; slot < row.capacity(); slot++) {
+					long otherFilmId = row.keyAt(slot);
+					if (otherFilmId != 0 && row.countAt(slot) > 0) {
+						scores.add(otherFilmId, row.countAt(slot));
+					}
+				}
+			}
+		}
+		for (long filmId : liked) {
+			scores.reset(filmId);
+		}
+		TopK top = new TopK(limit);
+		top.offerAll(scores);
+		return top.drainDescending();
+	}
+
+	// число хранимых пар (каждая пара учитывается в строках обоих фильмов)
+	public long pairs() {
+		long pairs = 0;
+		for (LongIntCounter row : coLikes.values()) {
+			synchronized (row) {
+				pairs += row.size();
+			}
+		}
+		return pairs;
+	}
+
+	private LongIntCounter row(long filmId) {
+		return coLikes.computeIfAbsent(filmId, id -> new LongIntCounter(16));
+	}
+}
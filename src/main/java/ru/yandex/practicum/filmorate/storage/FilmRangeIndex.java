@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongFunction;
+
+// упорядоченные индексы фильмов по дате релиза и по продолжительности. в каждом значении одного индекса
+// лежат пары (значение второго индекса, id), упакованные в long, поэтому второе условие выборки - тоже
+// отрезок, найденный двоичным поиском, и к самим фильмам обращаются только для найденных k фильмов.
+// изменения фильмов сериализует вызывающий код, запросы идут параллельно с ними
+public class FilmRangeIndex {
+
+	// id занимает младшие 32 бита пары: фильмов меньше 2^32
+	private static final long ID_MASK = 0xFFFF_FFFFL;
+
+	// дата релиза -> (продолжительность, id); продолжительность -> (дата релиза, id)
+	private final NavigableMap<Integer, SortedLongSet> byReleaseDate = new ConcurrentSkipListMap<>();
+	private final NavigableMap<Integer, SortedLongSet> byDuration = new ConcurrentSkipListMap<>();
+
+	public void add(Film film) {
+		byReleaseDate.computeIfAbsent(film.getReleaseDate(), day -> new SortedLongSet())
+				.add(pack(film.getDuration(), film.getId()));
+		byDuration.computeIfAbsent(film.getDuration(), duration -> new SortedLongSet())
+				.add(pack(film.getReleaseDate(), film.getId()));
+	}
+
+	// вызывается с прежними датой и продолжительностью, до их изменения
+	public void remove(Film film) {
+		remove(byReleaseDate, film.getReleaseDate(), pack(film.getDuration(), film.getId()));
+		remove(byDuration, film.getDuration(), pack(film.getReleaseDate(), film.getId()));
+	}
+
+	// фильмы с датой релиза и продолжительностью в заданных границах (включительно) по возрастанию даты релиза и id.
+	// обходятся значения того индекса, у которого их в диапазоне меньше (обычно это продолжительности),
+	// в каждом значении - отрезок второго условия. найденные фильмы проверяются еще раз: так отсекаются
+	// фильмы, изменившиеся после чтения индекса
+	public List<Film> find(int releasedFrom, int releasedTo, int minDuration, int maxDuration,
+						   LongFunction<Film> films) {
+		if (releasedFrom > releasedTo || minDuration > maxDuration) {
+			return List.of();
+		}
+		NavigableMap<Integer, SortedLongSet> dates = byReleaseDate.subMap(releasedFrom, true, releasedTo, true);
+		NavigableMap<Integer, SortedLongSet> durations = byDuration.subMap(minDuration, true, maxDuration, true);
+		int durationValues = durations.size();
+		boolean byDates = countUpTo(dates, durationValues) < durationValues;
+		long from = byDates ? pack(minDuration, 0) : pack(releasedFrom, 0);
+		long to = byDates ? pack(maxDuration, ID_MASK) : pack(releasedTo, ID_MASK);
+
+		// найденные фильмы собираются парами (дата релиза, id) и сортируются как числа, без обращения к фильмам
+		PairList found = new PairList();
+		if (byDates) {
+			dates.forEach((day, pairs) -> pairs.forEachInRange(from, to, pair -> found.add(pack(day, pair & ID_MASK))));
+		} else {
+			durations.values().forEach(pairs -> pairs.forEachInRange(from, to, found::add));
+		}
+		Arrays.sort(found.pairs, 0, found.size);
+
+		List<Film> result = new ArrayList<>(found.size);
+		for (int i = 0; i < found.size; i++) {
+			Film film = films.apply(found.pairs[i] & ID_MASK);
+			if (film != null && film.getReleaseDate() >= releasedFrom && film.getReleaseDate() <= releasedTo
+					&& film.getDuration() >= minDuration && film.getDuration() <= maxDuration) {
+				result.add(film);
+			}
+		}
+		return result;
+	}
+
+	// старшие 32 бита - значение со знаком, младшие - id: порядок пар совпадает с порядком (значение, id)
+	private static long pack(int value, long filmId) {
+		return (long) value << 32 | filmId;
+	}
+
+	// число значений в диапазоне, но не больше limit: дальше считать незачем
+	private static int countUpTo(NavigableMap<Integer, SortedLongSet> range, int limit) {
+		int count = 0;
+		for (Integer ignored : range.keySet()) {
+			if (++count >= limit) {
+				break;
+			}
+		}
+		return count;
+	}
+
+	private static void remove(NavigableMap<Integer, SortedLongSet> index, int value, long pair) {
+		SortedLongSet pairs = index.get(value);
+		if (pairs != null) {
+			pairs.remove(pair);
+			if (pairs.isEmpty()) {
+				index.remove(value, pairs);
+			}
+		}
+	}
+
+	// растущий массив пар без упаковки в Long
+	private static class PairList {
+		private long[] pairs = new long[16];
+		private int size;
+
+		void add(long pair) {
+			if (size == pairs.length) {
+				pairs = Arrays.copyOf(pairs, size * 2);
+			}
+			pairs[size++] = pair;
+		}
+	}
+}
@@ -1,17 +1,59 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface FilmStorage {
 
 	Collection<Film> findAll();
 
+	// страница с id больше afterId в порядке возрастания id, не длиннее limit
+	List<Film> findPage(long afterId, int limit);
+
 	Film create(Film film);
 
+	// пакетное сохранение: поля записей проверены заранее, здесь проверяется уникальность.
+	// результаты идут в порядке записей, ошибка одной записи не прерывает пакет
+	List<ImportResult> createAll(List<Film> films);
+
 	Film update(Film updatedFilm);
 
 	Optional<Film> findFilmById(Long id);
-}
\ No newline at end of file
+
+	List<Film> findAllByIds(Collection<Long> ids);
+
+	void addLike(Long filmId, Long userId);
+
+	void deleteLike(Long filmId, Long userId);
+
+	List<Film> getMostLiked(int count);
+
+	// фильмы с наибольшим числом лайков за последнее время (окно window)
+	List<Film> getTrending(TrendingWindow window, int count);
+
+	// фильмы, в названии или описании которых есть все слова запроса (последнее - возможно, не целиком),
+	// по убыванию релевантности с учетом лайков
+	List<Film> search(String query, int limit);
+
+	// фильмы с датой релиза (номер дня, см. IsoDates) и продолжительностью в заданных границах включительно,
+	// по возрастанию даты релиза и id; Integer.MIN_VALUE и Integer.MAX_VALUE - граница не задана
+	List<Film> findByRange(int releasedFrom, int releasedTo, int minDuration, int maxDuration);
+
+	// фильмы, которые чаще всего лайкают вместе с фильмами пользователя, кроме уже лайкнутых им
+	List<Film> getRecommended(long userId, int limit);
+
+	// пакетное добавление, существование участников проверено заранее; такие лайки не считаются
+	// поставленными сейчас и не попадают в рейтинг за последнее время
+	void addLikes(List<Like> likes);
+
+	// число фильмов и лайков для метрик
+	long count();
+
+	long countLikes();
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// потокобезопасный генератор идентификаторов для хранилищ
+public class IdSequence {
+
+	private final AtomicLong lastId = new AtomicLong();
+
+	public long next() {
+		return lastId.incrementAndGet();
+	}
+
+	public long current() {
+		return lastId.get();
+	}
+
+	// восстановление последнего выданного id, например после загрузки данных при старте
+	public void restore(long highWaterMark) {
+		lastId.accumulateAndGet(highWaterMark, Math::max);
+	}
+}
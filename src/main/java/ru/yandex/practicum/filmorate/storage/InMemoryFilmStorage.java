@@ -1,49 +1,149 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.storage.journal.StorageJournal;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
 import ru.yandex.practicum.filmorate.validator.FilmValidator;
 
+import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
+@Profile("!jdbc")
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
 
-	private final Map<Long, Film> films = new HashMap<>();
+	private final Map<Long, Film> films = new ConcurrentHashMap<>();
+	// уникальный индекс названий фильмов: name -> id
+	private final Map<String, Long> filmIdsByName = new ConcurrentHashMap<>();
+	private final PopularityIndex popularityIndex = new PopularityIndex();
+	private final CoLikeIndex coLikeIndex = new CoLikeIndex();
+	private final SearchIndex searchIndex = new SearchIndex();
+	private final FilmRangeIndex rangeIndex = new FilmRangeIndex();
+	// create и update проверяют уникальность и сохраняют фильм атомарно
+	private final Lock writeLock = new ReentrantLock();
+	private final StripedLock likeLocks = new StripedLock();
+	// общее число лайков: считать по всем фильмам при каждом чтении метрики дорого
+	private final LongAdder likesCount = new LongAdder();
 	private final FilmValidator validator = new FilmValidator();
+	private final IdSequence idSequence;
+	private final TrendingIndex trendingIndex;
+	private volatile StorageJournal journal = StorageJournal.DISABLED;
+
+	public InMemoryFilmStorage() {
+		this(new IdSequence());
+	}
+
+	public InMemoryFilmStorage(IdSequence idSequence) {
+		this(idSequence, Clock.systemUTC());
+	}
+
+	public InMemoryFilmStorage(IdSequence idSequence, Clock clock) {
+		this.idSequence = idSequence;
+		this.trendingIndex = new TrendingIndex(clock);
+	}
+
+	// журнал подключается после восстановления данных, чтобы восстановление не попадало в журнал повторно
+	public void setJournal(StorageJournal journal) {
+		this.journal = journal;
+	}
 
 	@Override
 	public Collection<Film> findAll() {
 		log.info("Список фильмов получен.");
-		return films.values();
+		return List.copyOf(films.values());
+	}
+
+	// id выдаются подряд и не удаляются, поэтому порядок id задается самой последовательностью:
+	// страница собирается прямыми обращениями к карте без сортировки и отдельного индекса.
+	// создание идет под writeLock, так что отсутствовать может только последний, еще не сохраненный id
+	@Override
+	public List<Film> findPage(long afterId, int limit) {
+		List<Film> page = new ArrayList<>(limit);
+		long lastId = idSequence.current();
+		for (long id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+			Film film = films.get(id);
+			if (film != null) {
+				page.add(film);
+			}
+		}
+		return page;
 	}
 
 	@Override
 	public Optional<Film> findFilmById(Long id) {
-		return Optional.ofNullable(films.values().stream()
-				.filter(film -> film.getId().equals(id))
-				.findFirst()
-				.orElseThrow(() -> new NotFoundException("Фильм с id " + id + " не найден.")));
+		Film film = films.get(id);
+		if (film == null) {
+			throw new NotFoundException("Фильм с id " + id + " не найден.");
+		}
+		return Optional.of(film);
 	}
 
 	@Override
-	public Film create(Film film) {
-		// проверяем выполнение необходимых условий
-		validator.validate(film, films);
+	public List<Film> findAllByIds(Collection<Long> ids) {
+		List<Film> result = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			result.add(findFilmById(id).get());
+		}
+		return result;
+	}
 
-		// формируем дополнительные данные
-		film.setId(getNextId());
-		film.setLikes(new HashSet<>());
-		// сохраняем новую публикацию в памяти приложения
-		films.put(film.getId(), film);
+	@Override
+	public Film create(Film film) {
+		StorageJournal currentJournal = journal;
+		long record;
+		writeLock.lock();
+		try {
+			// проверяем выполнение необходимых условий
+			validator.validate(film, null, filmIdsByName::get);
+			record = save(film, currentJournal);
+		} finally {
+			writeLock.unlock();
+		}
+		currentJournal.awaitDurable(record);
 		log.info("Фильм сохранен.");
 		return film;
 	}
 
+	// весь пакет сохраняется за один захват блокировки, а ожидание записи журнала - одно на пакет
+	@Override
+	public List<ImportResult> createAll(List<Film> newFilms) {
+		StorageJournal currentJournal = journal;
+		List<ImportResult> results = new ArrayList<>(newFilms.size());
+		long record = 0;
+		writeLock.lock();
+		try {
+			for (Film film : newFilms) {
+				try {
+					validator.checkUnique(film, null, filmIdsByName::get);
+				} catch (DuplicatedDataException e) {
+					results.add(ImportResult.builder().error(e.getMessage()).build());
+					continue;
+				}
+				record = save(film, currentJournal);
+				results.add(ImportResult.builder().id(film.getId()).build());
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		currentJournal.awaitDurable(record);
+		log.info("Пакет фильмов сохранен: {}.", newFilms.size());
+		return results;
+	}
+
 	@Override
 	public Film update(Film newFilm) {
 		// проверяем необходимые условия
@@ -51,53 +151,254 @@ public class InMemoryFilmStorage implements FilmStorage {
 			log.error("Пустое поле id.");
 			throw new NotFoundException("Id должен быть указан");
 		}
-		films.values().stream()
-				.filter(user -> newFilm.getName() != null)
-				.filter(user -> newFilm.getName().equals(user.getName()))
-				.forEach(user -> {
-					log.error("Данный фильм уже сохранен.");
-					throw new DuplicatedDataException("Данный фильм уже сохранен."); });
-
-		// проверяем выполнение необходимых условий
-		validator.validate(newFilm, films);
+		StorageJournal currentJournal = journal;
+		Film updatedFilm;
+		long record;
+		writeLock.lock();
+		try {
+			// проверяем выполнение необходимых условий
+			validator.validate(newFilm, newFilm.getId(), filmIdsByName::get);
 
-		if (films.containsKey(newFilm.getId())) {
 			Film oldFilm = films.get(newFilm.getId());
-
+			if (oldFilm == null) {
+				log.error("Отсутствует фильм с данным id.");
+				throw new NotFoundException("Фильм с id = " + newFilm.getId() + " не найден");
+			}
+			// изменения собираются в новом объекте, который заменяет прежний целиком:
+			// читатели видят либо прежний фильм, либо новый, но не смесь их полей
+			Film.FilmBuilder changes = oldFilm.toBuilder();
 			if (newFilm.getName() != null) {
 				log.debug("Перезапись name в поле.");
-				oldFilm.setName(newFilm.getName());
+				changes.name(newFilm.getName());
 			}
 
 			if (newFilm.getDescription() != null) {
 				log.debug("Перезапись description в поле.");
-				oldFilm.setDescription(newFilm.getDescription());
+				changes.description(newFilm.getDescription());
 			}
 
-			if (newFilm.getReleaseDate() != null) {
+			if (newFilm.getReleaseDate() != IsoDates.NONE) {
 				log.debug("Перезапись releaseDate в поле.");
-				oldFilm.setReleaseDate(newFilm.getReleaseDate());
+				changes.releaseDate(newFilm.getReleaseDate());
 			}
 
 			if (newFilm.getDuration() > 0) {
 				log.debug("Перезапись duration в поле.");
-				oldFilm.setDuration(newFilm.getDuration());
+				changes.duration(newFilm.getDuration());
+			}
+			updatedFilm = changes.build();
+			// запись журнала - до изменения памяти: если она не удалась, фильм остается прежним
+			record = currentJournal.filmSaved(updatedFilm);
+
+			if (newFilm.getName() != null) {
+				filmIdsByName.remove(oldFilm.getName());
+				filmIdsByName.put(updatedFilm.getName(), updatedFilm.getId());
+			}
+			// поисковый индекс переиндексирует фильм, только если изменился текст
+			if (newFilm.getName() != null || newFilm.getDescription() != null) {
+				searchIndex.remove(oldFilm);
+				searchIndex.add(updatedFilm);
 			}
-			log.info("Фильм обновлен.");
-			return oldFilm;
+			// индексы диапазонов - только если изменилась дата релиза или продолжительность
+			if (newFilm.getReleaseDate() != IsoDates.NONE || newFilm.getDuration() > 0) {
+				rangeIndex.remove(oldFilm);
+				rangeIndex.add(updatedFilm);
+			}
+			replace(updatedFilm);
+		} finally {
+			writeLock.unlock();
+		}
+		currentJournal.awaitDurable(record);
+		log.info("Фильм обновлен.");
+		return updatedFilm;
+	}
+
+	@Override
+	public void addLike(Long filmId, Long userId) {
+		StorageJournal currentJournal = journal;
+		currentJournal.awaitDurable(changeLike(filmId, userId, true, currentJournal, true));
+	}
+
+	@Override
+	public void deleteLike(Long filmId, Long userId) {
+		StorageJournal currentJournal = journal;
+		currentJournal.awaitDurable(changeLike(filmId, userId, false, currentJournal, true));
+	}
+
+	@Override
+	public void addLikes(List<Like> likes) {
+		StorageJournal currentJournal = journal;
+		long record = 0;
+		// как при восстановлении: время загруженных лайков неизвестно, в окна рейтинга они не попадают
+		for (Like like : likes) {
+			record = Math.max(record, changeLike(like.getFilmId(), like.getUserId(), true, currentJournal, false));
+		}
+		currentJournal.awaitDurable(record);
+	}
+
+	// восстановление фильма из журнала или снимка: без проверок и без повторной записи в журнал;
+	// если лайки не переданы, сохраняются уже восстановленные
+	public void restore(Film film) {
+		writeLock.lock();
+		try {
+			Film oldFilm = films.get(film.getId());
+			boolean likesRestored = film.getLikes() != null;
+			if (!likesRestored) {
+				film.setLikes(oldFilm != null ? oldFilm.getLikes() : new SortedLongSet());
+			} else {
+				// лайки из снимка приходят целиком, индекс совместных лайков заполняется по ним
+				if (oldFilm != null) {
+					oldFilm.getLikes().forEachLong(userId -> coLikeIndex.likeChanged(film.getId(), userId, false));
+				}
+				film.getLikes().forEachLong(userId -> coLikeIndex.likeChanged(film.getId(), userId, true));
+				likesCount.add(film.getLikes().size() - (oldFilm != null ? oldFilm.getLikes().size() : 0));
+			}
+			film.setVersion(oldFilm != null ? oldFilm.getVersion() + 1 : 1);
+			if (oldFilm != null) {
+				filmIdsByName.remove(oldFilm.getName());
+				searchIndex.remove(oldFilm);
+				rangeIndex.remove(oldFilm);
+				popularityIndex.move(film.getId(), oldFilm.getLikes().size(), film.getLikes().size());
+			} else {
+				popularityIndex.add(film.getId(), film.getLikes().size());
+			}
+			films.put(film.getId(), film);
+			filmIdsByName.put(film.getName(), film.getId());
+			searchIndex.add(film);
+			rangeIndex.add(film);
+			idSequence.restore(film.getId());
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// восстановленные лайки не попадают в рейтинг за последнее время: их настоящее время неизвестно
+	public void restoreLike(long filmId, long userId, boolean added) {
+		changeLike(filmId, userId, added, StorageJournal.DISABLED, false);
+	}
+
+	@Override
+	public List<Film> getMostLiked(int count) {
+		return findAllByIds(popularityIndex.top(count));
+	}
+
+	@Override
+	public List<Film> getTrending(TrendingWindow window, int count) {
+		return findAllByIds(trendingIndex.top(window, count));
+	}
+
+	@Override
+	public List<Film> search(String query, int limit) {
+		long[] ids = searchIndex.search(query, limit, filmId -> {
+			Film film = films.get(filmId);
+			return film != null ? film.getLikes().size() : 0;
+		});
+		return findAllByIds(Arrays.stream(ids).boxed().toList());
+	}
+
+	@Override
+	public List<Film> findByRange(int releasedFrom, int releasedTo, int minDuration, int maxDuration) {
+		return rangeIndex.find(releasedFrom, releasedTo, minDuration, maxDuration, films::get);
+	}
+
+	@Override
+	public List<Film> getRecommended(long userId, int limit) {
+		return findAllByIds(Arrays.stream(coLikeIndex.recommend(userId, limit)).boxed().toList());
+	}
+
+	@Override
+	public long count() {
+		return films.size();
+	}
+
+	@Override
+	public long countLikes() {
+		return likesCount.sum();
+	}
+
+	// ожидание изменений, уже записанных в журнал: запись в журнал и изменение памяти идут под одними
+	// блокировками, поэтому после захвата всех блокировок каждое такое изменение применено к памяти
+	public void awaitJournaledChanges() {
+		writeLock.lock();
+		try {
+			likeLocks.lockAll();
+			likeLocks.unlockAll();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// число пар фильмов в индексе совместных лайков (для оценки занимаемой памяти)
+	public long coLikePairs() {
+		return coLikeIndex.pairs();
+	}
+
+	// сохранение проверенного нового фильма, вызывается под writeLock; возвращает номер записи журнала
+	private long save(Film film, StorageJournal currentJournal) {
+		// формируем дополнительные данные
+		film.setId(getNextId());
+		film.setLikes(new SortedLongSet());
+		film.setVersion(1);
+		// запись журнала - до того, как фильм станет виден: иначе лайк другого потока мог бы попасть в журнал
+		// раньше записи о фильме, и восстановление не нашло бы фильм. если запись не удалась, пропадает только id
+		long record = currentJournal.filmSaved(film);
+		// сохраняем новую публикацию в памяти приложения
+		films.put(film.getId(), film);
+		filmIdsByName.put(film.getName(), film.getId());
+		popularityIndex.add(film.getId(), 0);
+		searchIndex.add(film);
+		rangeIndex.add(film);
+		return record;
+	}
+
+	// изменение лайка вместе с индексами; live - лайк ставится сейчас (учитывается в рейтинге за последнее время).
+	// возвращает номер записи журнала
+	private long changeLike(long filmId, long userId, boolean added, StorageJournal currentJournal, boolean live) {
+		findFilmById(filmId);
+		likeLocks.lock(filmId);
+		try {
+			// фильм читается под блокировкой: update мог заменить его новым объектом
+			Film film = films.get(filmId);
+			SortedLongSet likes = film.getLikes();
+			if (likes.contains(userId) == added) {
+				return 0;
+			}
+			// запись журнала - до изменения памяти: если она не удалась, лайк не меняется
+			long record = currentJournal.likeChanged(filmId, userId, added);
+			if (added) {
+				likes.add(userId);
+			} else {
+				likes.remove(userId);
+			}
+			film.setVersion(film.getVersion() + 1);
+			likesCount.add(added ? 1 : -1);
+			popularityIndex.move(filmId, added ? likes.size() - 1 : likes.size() + 1, likes.size());
+			coLikeIndex.likeChanged(filmId, userId, added);
+			if (live) {
+				trendingIndex.likeChanged(filmId, added);
+			}
+			return record;
+		} finally {
+			likeLocks.unlock(filmId);
+		}
+	}
+
+	// замена фильма новым объектом с общими лайками; версию меняют и update (под writeLock), и лайки
+	// (под блокировкой фильма), поэтому здесь берется блокировка фильма
+	private void replace(Film film) {
+		likeLocks.lock(film.getId());
+		try {
+			film.setVersion(films.get(film.getId()).getVersion() + 1);
+			films.put(film.getId(), film);
+		} finally {
+			likeLocks.unlock(film.getId());
 		}
-		log.error("Отсутствует фильм с данным id.");
-		throw new NotFoundException("Фильм с id = " + newFilm.getId() + " не найден");
 	}
 
 	// вспомогательный метод для генерации идентификатора нового поста
 	private long getNextId() {
-		long currentMaxId = films.keySet()
-				.stream()
-				.mapToLong(id -> id)
-				.max()
-				.orElse(0);
+		long nextId = idSequence.next();
 		log.debug("Сгенерирован новый id.");
-		return ++currentMaxId;
+		return nextId;
 	}
 }
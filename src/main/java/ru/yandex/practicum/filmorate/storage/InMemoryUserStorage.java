@@ -1,53 +1,137 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ImportResult;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.journal.StorageJournal;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
 import ru.yandex.practicum.filmorate.validator.UserValidator;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
+@Profile("!jdbc")
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
 
-	private final Map<Long, User> users = new HashMap<>();
+	private final Map<Long, User> users = new ConcurrentHashMap<>();
+	// уникальный индекс имейлов пользователей: email -> id
+	private final Map<String, Long> userIdsByEmail = new ConcurrentHashMap<>();
+	// create и update проверяют уникальность и сохраняют пользователя атомарно
+	private final Lock writeLock = new ReentrantLock();
+	private final StripedLock friendLocks = new StripedLock();
+	// число записей в списках друзей всех пользователей: каждая дружба записана у обоих друзей
+	private final LongAdder friendEntries = new LongAdder();
 	private final UserValidator validator = new UserValidator();
+	private final IdSequence idSequence;
+	private volatile StorageJournal journal = StorageJournal.DISABLED;
+
+	public InMemoryUserStorage() {
+		this(new IdSequence());
+	}
+
+	public InMemoryUserStorage(IdSequence idSequence) {
+		this.idSequence = idSequence;
+	}
+
+	// журнал подключается после восстановления данных, чтобы восстановление не попадало в журнал повторно
+	public void setJournal(StorageJournal journal) {
+		this.journal = journal;
+	}
 
 	@Override
 	public Collection<User> findAll() {
 		log.info("Список пользователей получен.");
-		return users.values();
+		return List.copyOf(users.values());
+	}
+
+	// id выдаются подряд и не удаляются, поэтому порядок id задается самой последовательностью:
+	// страница собирается прямыми обращениями к карте без сортировки и отдельного индекса.
+	// создание идет под writeLock, так что отсутствовать может только последний, еще не сохраненный id
+	@Override
+	public List<User> findPage(long afterId, int limit) {
+		List<User> page = new ArrayList<>(limit);
+		long lastId = idSequence.current();
+		for (long id = Math.max(afterId, 0) + 1; id <= lastId && page.size() < limit; id++) {
+			User user = users.get(id);
+			if (user != null) {
+				page.add(user);
+			}
+		}
+		return page;
 	}
 
 	@Override
 	public Optional<User> findUserById(Long id) {
-			return Optional.ofNullable(users.values().stream()
-					.filter(user -> user.getId().equals(id))
-					.findFirst()
-					.orElseThrow(() -> new NotFoundException("Пользователь с id " + id + " не найден.")));
+		User user = users.get(id);
+		if (user == null) {
+			throw new NotFoundException("Пользователь с id " + id + " не найден.");
+		}
+		return Optional.of(user);
 	}
 
 	@Override
-	public User create(User user) {
-		// проверяем выполнение необходимых условий
-		validator.validate(user, users);
+	public List<User> findAllByIds(Collection<Long> ids) {
+		List<User> result = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			result.add(findUserById(id).get());
+		}
+		return result;
+	}
 
-		// формируем дополнительные данные
-		if (user.getName() == null || user.getName().isBlank()) {
-			log.debug("Запись login в пустое поле имени.");
-			user.setName(user.getLogin());
+	@Override
+	public User create(User user) {
+		StorageJournal currentJournal = journal;
+		long record;
+		writeLock.lock();
+		try {
+			// проверяем выполнение необходимых условий
+			validator.validate(user, null, userIdsByEmail::get);
+			record = save(user, currentJournal);
+		} finally {
+			writeLock.unlock();
 		}
-		user.setId(getNextId());
-		user.setFriends(new HashSet<>());
-		// сохраняем новую публикацию в памяти приложения
-		users.put(user.getId(), user);
+		currentJournal.awaitDurable(record);
 		log.info("Пользователь сохранен.");
 		return user;
 	}
 
+	// весь пакет сохраняется за один захват блокировки, а ожидание записи журнала - одно на пакет
+	@Override
+	public List<ImportResult> createAll(List<User> newUsers) {
+		StorageJournal currentJournal = journal;
+		List<ImportResult> results = new ArrayList<>(newUsers.size());
+		long record = 0;
+		writeLock.lock();
+		try {
+			for (User user : newUsers) {
+				try {
+					validator.checkUnique(user, null, userIdsByEmail::get);
+				} catch (DuplicatedDataException e) {
+					results.add(ImportResult.builder().error(e.getMessage()).build());
+					continue;
+				}
+				record = save(user, currentJournal);
+				results.add(ImportResult.builder().id(user.getId()).build());
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		currentJournal.awaitDurable(record);
+		log.info("Пакет пользователей сохранен: {}.", newUsers.size());
+		return results;
+	}
+
 	@Override
 	public User update(User newUser) {
 		// проверяем необходимые условия
@@ -55,53 +139,193 @@ public class InMemoryUserStorage implements UserStorage {
 			log.error("Пустое поле id.");
 			throw new NotFoundException("Id должен быть указан.");
 		}
-		users.values().stream()
-				.filter(user -> newUser.getEmail() != null)
-				.filter(user -> newUser.getEmail().equals(user.getEmail()))
-				.forEach(user -> {
-					log.error("Данный имейл уже используется.");
-					throw new DuplicatedDataException("Этот имейл уже используется."); });
-
-		// проверяем выполнение необходимых условий
-		validator.validate(newUser, users);
+		StorageJournal currentJournal = journal;
+		User updatedUser;
+		long record;
+		writeLock.lock();
+		try {
+			// проверяем выполнение необходимых условий
+			validator.validate(newUser, newUser.getId(), userIdsByEmail::get);
 
-		if (users.containsKey(newUser.getId())) {
 			User oldUser = users.get(newUser.getId());
-
+			if (oldUser == null) {
+				log.error("Отсутствует пользователь с данным id.");
+				throw new NotFoundException("Пользователь с id = " + newUser.getId() + " не найден.");
+			}
+			// изменения собираются в новом объекте, который заменяет прежний целиком (см. InMemoryFilmStorage.update)
+			User.UserBuilder changes = oldUser.toBuilder();
 			if (newUser.getEmail() != null) {
 				log.debug("Перезапись email в поле.");
-				oldUser.setEmail(newUser.getEmail());
+				changes.email(newUser.getEmail());
 			}
 
 			if (newUser.getLogin() != null) {
 				log.debug("Перезапись login в поле.");
-				oldUser.setLogin(newUser.getLogin());
+				changes.login(newUser.getLogin());
 			}
 
 			if (newUser.getName() != null) {
 				log.debug("Перезапись name в поле.");
-				oldUser.setName(newUser.getName());
+				changes.name(newUser.getName());
 			}
 
-			if (newUser.getBirthday() != null) {
+			if (newUser.getBirthday() != IsoDates.NONE) {
 				log.debug("Перезапись birthday в поле.");
-				oldUser.setBirthday(newUser.getBirthday());
+				changes.birthday(newUser.getBirthday());
+			}
+			updatedUser = changes.build();
+			// запись журнала - до изменения памяти: если она не удалась, пользователь остается прежним
+			record = currentJournal.userSaved(updatedUser);
+
+			if (newUser.getEmail() != null) {
+				userIdsByEmail.remove(oldUser.getEmail());
+				userIdsByEmail.put(updatedUser.getEmail(), updatedUser.getId());
 			}
-			log.info("Пользователь обновлен.");
-			return oldUser;
+			replace(updatedUser);
+		} finally {
+			writeLock.unlock();
+		}
+		currentJournal.awaitDurable(record);
+		log.info("Пользователь обновлен.");
+		return updatedUser;
+	}
+
+	@Override
+	public void addFriend(Long userId, Long friendId) {
+		StorageJournal currentJournal = journal;
+		currentJournal.awaitDurable(changeFriendship(userId, friendId, true, currentJournal));
+	}
+
+	@Override
+	public void deleteFriend(Long userId, Long friendId) {
+		StorageJournal currentJournal = journal;
+		currentJournal.awaitDurable(changeFriendship(userId, friendId, false, currentJournal));
+	}
+
+	@Override
+	public void addFriendships(List<Friendship> friendships) {
+		StorageJournal currentJournal = journal;
+		long record = 0;
+		for (Friendship friendship : friendships) {
+			record = Math.max(record, changeFriendship(friendship.getUserId(), friendship.getFriendId(), true,
+					currentJournal));
+		}
+		currentJournal.awaitDurable(record);
+	}
+
+	// восстановление пользователя из журнала или снимка: без проверок и без повторной записи в журнал;
+	// если друзья не переданы, сохраняются уже восстановленные
+	public void restore(User user) {
+		writeLock.lock();
+		try {
+			User oldUser = users.get(user.getId());
+			if (user.getFriends() == null) {
+				user.setFriends(oldUser != null ? oldUser.getFriends() : new SortedLongSet());
+			} else {
+				friendEntries.add(user.getFriends().size() - (oldUser != null ? oldUser.getFriends().size() : 0));
+			}
+			user.setVersion(oldUser != null ? oldUser.getVersion() + 1 : 1);
+			if (oldUser != null) {
+				userIdsByEmail.remove(oldUser.getEmail());
+			}
+			users.put(user.getId(), user);
+			userIdsByEmail.put(user.getEmail(), user.getId());
+			idSequence.restore(user.getId());
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void restoreFriendship(long userId, long friendId, boolean added) {
+		changeFriendship(userId, friendId, added, StorageJournal.DISABLED);
+	}
+
+	@Override
+	public long count() {
+		return users.size();
+	}
+
+	@Override
+	public long countFriendships() {
+		return friendEntries.sum() / 2;
+	}
+
+	// ожидание изменений, уже записанных в журнал (см. InMemoryFilmStorage.awaitJournaledChanges)
+	public void awaitJournaledChanges() {
+		writeLock.lock();
+		try {
+			friendLocks.lockAll();
+			friendLocks.unlockAll();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// сохранение проверенного нового пользователя, вызывается под writeLock; возвращает номер записи журнала
+	private long save(User user, StorageJournal currentJournal) {
+		// формируем дополнительные данные
+		if (user.getName() == null || user.getName().isBlank()) {
+			log.debug("Запись login в пустое поле имени.");
+			user.setName(user.getLogin());
+		}
+		user.setId(getNextId());
+		user.setFriends(new SortedLongSet());
+		user.setVersion(1);
+		// запись журнала - до того, как пользователь станет виден (см. InMemoryFilmStorage.save)
+		long record = currentJournal.userSaved(user);
+		// сохраняем новую публикацию в памяти приложения
+		users.put(user.getId(), user);
+		userIdsByEmail.put(user.getEmail(), user.getId());
+		return record;
+	}
+
+	// изменение обеих сторон дружбы; возвращает номер записи журнала
+	private long changeFriendship(long userId, long friendId, boolean added, StorageJournal currentJournal) {
+		findUserById(userId);
+		findUserById(friendId);
+		// обе стороны дружбы меняются под одной парой блокировок
+		friendLocks.lockBoth(userId, friendId);
+		try {
+			// пользователи читаются под блокировками: update мог заменить их новыми объектами
+			User user = users.get(userId);
+			User friend = users.get(friendId);
+			if (user.getFriends().contains(friendId) == added && friend.getFriends().contains(userId) == added) {
+				return 0;
+			}
+			// запись журнала - до изменения памяти: если она не удалась, дружба не меняется
+			long record = currentJournal.friendshipChanged(userId, friendId, added);
+			if (added) {
+				user.getFriends().add(friendId);
+				friend.getFriends().add(userId);
+			} else {
+				user.getFriends().remove(friendId);
+				friend.getFriends().remove(userId);
+			}
+			user.setVersion(user.getVersion() + 1);
+			friend.setVersion(friend.getVersion() + 1);
+			friendEntries.add(added ? 2 : -2);
+			return record;
+		} finally {
+			friendLocks.unlockBoth(userId, friendId);
+		}
+	}
+
+	// замена пользователя новым объектом с общими друзьями; версию меняют и update (под writeLock), и дружба
+	// (под блокировкой пользователя), поэтому здесь берется блокировка пользователя
+	private void replace(User user) {
+		friendLocks.lock(user.getId());
+		try {
+			user.setVersion(users.get(user.getId()).getVersion() + 1);
+			users.put(user.getId(), user);
+		} finally {
+			friendLocks.unlock(user.getId());
 		}
-		log.error("Отсутствует пользователь с данным id.");
-		throw new NotFoundException("Пользователь с id = " + newUser.getId() + " не найден.");
 	}
 
 	// вспомогательный метод для генерации идентификатора нового поста
 	private long getNextId() {
-		long currentMaxId = users.keySet()
-				.stream()
-				.mapToLong(id -> id)
-				.max()
-				.orElse(0);
+		long nextId = idSequence.next();
 		log.debug("Сгенерирован новый id.");
-		return ++currentMaxId;
+		return nextId;
 	}
 }
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// индекс популярности фильмов: упорядочен по числу лайков (по убыванию), при равенстве - по id
+public class PopularityIndex {
+
+	private final NavigableSet<Rank> ranks = new ConcurrentSkipListSet<>();
+	// перемещение - это удаление и вставка, и обход посередине перемещения пропустил бы фильм или вернул бы его
+	// дважды. роли блокировки обратные: перемещения берут общую и идут параллельно друг с другом,
+	// обход top - исключительную и видит каждый фильм ровно один раз
+	private final ReadWriteLock moveLock = new ReentrantReadWriteLock();
+
+	public void add(long filmId, int likes) {
+		ranks.add(new Rank(likes, filmId));
+	}
+
+	// перемещение фильма в индексе после изменения количества лайков;
+	// вызывающий код должен сериализовать перемещения одного фильма
+	public void move(long filmId, int oldLikes, int newLikes) {
+		moveLock.readLock().lock();
+		try {
+			ranks.remove(new Rank(oldLikes, filmId));
+			ranks.add(new Rank(newLikes, filmId));
+		} finally {
+			moveLock.readLock().unlock();
+		}
+	}
+
+	public void remove(long filmId, int likes) {
+		ranks.remove(new Rank(likes, filmId));
+	}
+
+	// id первых count фильмов; обходится только начало индекса
+	public List<Long> top(int count) {
+		List<Long> result = new ArrayList<>();
+		moveLock.writeLock().lock();
+		try {
+			Iterator<Rank> iterator = ranks.iterator();
+			while (result.size() < count && iterator.hasNext()) {
+				result.add(iterator.next().filmId());
+			}
+		} finally {
+			moveLock.writeLock().unlock();
+		}
+		return result;
+	}
+
+	private record Rank(int likes, long filmId) implements Comparable<Rank> {
+		@Override
+		public int compareTo(Rank other) {
+			int byLikes = Integer.compare(other.likes, likes);
+			return byLikes != 0 ? byLikes : Long.compare(filmId, other.filmId);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+import ru.yandex.practicum.filmorate.util.TopK;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongToIntFunction;
+
+// обратный индекс по названиям и описаниям фильмов: слово -> вес слова в каждом фильме.
+// слова хранятся в отсортированной карте, поэтому слова с заданным началом (автодополнение) - это один
+// диапазон карты. изменения фильмов сериализует вызывающий код, запросы идут параллельно с ними
+public class SearchIndex {
+
+	// слово из названия весит больше слова из описания
+	private static final int NAME_WEIGHT = 3;
+	private static final int DESCRIPTION_WEIGHT = 1;
+	// полное совпадение последнего слова запроса важнее совпадения по началу
+	private static final int EXACT_MATCH_FACTOR = 2;
+	private static final int SCORE_SCALE = 100;
+
+	private final NavigableMap<String, LongIntCounter> postings = new ConcurrentSkipListMap<>();
+
+	public void add(Film film) {
+		apply(film, 1);
+	}
+
+	// вызывается с прежними названием и описанием, до их изменения
+	public void remove(Film film) {
+		apply(film, -1);
+	}
+
+	// фильмы, содержащие все слова запроса; последнее слово может быть началом слова.
+	// оценка - релевантность, умноженная на 1 + ln(1 + лайки): лайки поднимают популярные фильмы,
+	// но не перевешивают совпадение в названии
+	public long[] search(String query, int limit, LongToIntFunction likes) {
+		List<String> words = tokenize(query);
+		if (words.isEmpty()) {
+			return new long[0];
+		}
+		String prefix = words.remove(words.size() - 1);
+		// сначала самые редкие слова: дальше проверяются только уже найденные фильмы
+		List<Map.Entry<String, LongIntCounter>> exact = new ArrayList<>(words.size());
+		for (String word : words) {
+			LongIntCounter films = postings.get(word);
+			if (films == null) {
+				return new long[0];
+			}
+			exact.add(Map.entry(word, films));
+		}
+		exact.sort(Comparator.comparingInt(entry -> entry.getValue().size()));
+		LongIntCounter relevance = null;
+		for (Map.Entry<String, LongIntCounter> entry : exact) {
+			relevance = match(Map.ofEntries(entry), entry.getKey(), relevance);
+			if (relevance.size() == 0) {
+				return new long[0];
+			}
+		}
+		relevance = match(postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false), prefix, relevance);
+
+		TopK top = new TopK(limit);
+		for (int slot = 0; slot < relevance.capacity(); slot++) {
+			long filmId = relevance.keyAt(slot);
+			if (filmId != 0 && relevance.countAt(slot) > 0) {
+				double popularity = 1 + Math.log1p(Math.max(likes.applyAsInt(filmId), 0));
+				top.offer(filmId, (int) (relevance.countAt(slot) * SCORE_SCALE * popularity));
+			}
+		}
+		return top.drainDescending();
+	}
+
+	// число слов в индексе
+	public int words() {
+		return postings.size();
+	}
+
+	// слова из букв и цифр любого алфавита в нижнем регистре; ё приводится к е
+	public static List<String> tokenize(String text) {
+		List<String> words = new ArrayList<>();
+		if (text == null) {
+			return words;
+		}
+		StringBuilder word = new StringBuilder();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				c = Character.toLowerCase(c);
+				word.append(c == 'ё' ? 'е' : c);
+			} else if (!word.isEmpty()) {
+				words.add(word.toString());
+				word.setLength(0);
+			}
+		}
+		if (!word.isEmpty()) {
+			words.add(word.toString());
+		}
+		return words;
+	}
+
+	private void apply(Film film, int sign) {
+		Map<String, Integer> weights = new HashMap<>();
+		for (String word : tokenize(film.getName())) {
+			weights.merge(word, NAME_WEIGHT, Integer::sum);
+		}
+		for (String word : tokenize(film.getDescription())) {
+			weights.merge(word, DESCRIPTION_WEIGHT, Integer::sum);
+		}
+		// удаленный фильм остается в ячейке с нулевым весом: удаление из открытой адресации разорвало бы цепочки
+		weights.forEach((word, weight) -> {
+			LongIntCounter films = postings.computeIfAbsent(word, w -> new LongIntCounter(4));
+			synchronized (films) {
+				films.add(film.getId(), sign * weight);
+			}
+		});
+	}
+
+	// для каждого фильма - вес лучшего из слов words (совпадение с exactWord весит вдвое больше)
+	// плюс вес, уже набранный по candidates. если candidates задан, учитываются только его фильмы
+	// и для каждого слова обходится меньший из двух наборов
+	private static LongIntCounter match(Map<String, LongIntCounter> words, String exactWord,
+										LongIntCounter candidates) {
+		int expected = candidates != null ? candidates.size() : 0;
+		if (candidates == null) {
+			for (LongIntCounter films : words.values()) {
+				expected = Math.max(expected, films.size());
+			}
+		}
+		LongIntCounter matches = new LongIntCounter(expected);
+		words.forEach((word, films) -> {
+			int factor = word.equals(exactWord) ? EXACT_MATCH_FACTOR : 1;
+			synchronized (films) {
+				if (candidates != null && candidates.size() < films.size()) {
+					for (int slot = 0; slot < candidates.capacity(); slot++) {
+						long filmId = candidates.keyAt(slot);
+						if (filmId != 0 && candidates.countAt(slot) > 0) {
+							keepBest(matches, filmId, films.get(filmId) * factor);
+						}
+					}
+				} else {
+					for (int slot = 0; slot < films.capacity(); slot++) {
+						long filmId = films.keyAt(slot);
+						if (filmId != 0 && (candidates == null || candidates.get(filmId) > 0)) {
+							keepBest(matches, filmId, films.countAt(slot) * factor);
+						}
+					}
+				}
+			}
+		});
+		if (candidates != null) {
+			for (int slot = 0; slot < matches.capacity(); slot++) {
+				long filmId = matches.keyAt(slot);
+				if (filmId != 0) {
+					matches.add(filmId, candidates.get(filmId));
+				}
+			}
+		}
+		return matches;
+	}
+
+	private static void keepBest(LongIntCounter matches, long filmId, int weight) {
+		int current = matches.get(filmId);
+		if (weight > current) {
+			matches.add(filmId, weight - current);
+		}
+	}
+}
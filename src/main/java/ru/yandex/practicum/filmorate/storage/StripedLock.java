@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// набор блокировок, распределенных по id сущностей; защищает изменения связей (лайков, друзей)
+public class StripedLock {
+
+	private static final int DEFAULT_STRIPES = 64;
+	private final Lock[] locks;
+
+	public StripedLock() {
+		this(DEFAULT_STRIPES);
+	}
+
+	public StripedLock(int stripes) {
+		locks = new Lock[stripes];
+		for (int i = 0; i < stripes; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	public void lock(long id) {
+		locks[stripe(id)].lock();
+	}
+
+	public void unlock(long id) {
+		locks[stripe(id)].unlock();
+	}
+
+	// захват блокировок двух сущностей всегда в одном порядке, чтобы исключить взаимную блокировку
+	public void lockBoth(long firstId, long secondId) {
+		int first = stripe(firstId);
+		int second = stripe(secondId);
+		locks[Math.min(first, second)].lock();
+		if (first != second) {
+			locks[Math.max(first, second)].lock();
+		}
+	}
+
+	public void unlockBoth(long firstId, long secondId) {
+		int first = stripe(firstId);
+		int second = stripe(secondId);
+		if (first != second) {
+			locks[Math.max(first, second)].unlock();
+		}
+		locks[Math.min(first, second)].unlock();
+	}
+
+	// захват всех блокировок в том же порядке, что и в lockBoth
+	public void lockAll() {
+		for (Lock lock : locks) {
+			lock.lock();
+		}
+	}
+
+	public void unlockAll() {
+		for (int i = locks.length - 1; i >= 0; i--) {
+			locks[i].unlock();
+		}
+	}
+
+	private int stripe(long id) {
+		return (int) Math.floorMod(id ^ (id >>> 32), (long) locks.length);
+	}
+}
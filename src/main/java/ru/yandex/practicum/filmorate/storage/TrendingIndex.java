@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// лайки за последний час, сутки и неделю. у фильма, которому недавно ставили лайки, два кольцевых буфера:
+// 60 минутных интервалов (окно 1h) и 168 часовых (окна 24h и 7d), так что память зависит от числа
+// таких фильмов, а не от числа лайков. рейтинг каждого окна поддерживается отдельным индексом популярности,
+// поэтому запрос читает только начало индекса. устаревшие интервалы вычитаются при смене минуты
+// (при первом изменении или запросе после нее) только у фильмов с лайками в буферах
+public class TrendingIndex {
+
+	private static final int MINUTES = 60;
+	private static final int HOURS = 168;
+	private static final int DAY_HOURS = 24;
+
+	private final Clock clock;
+	private final Lock lock = new ReentrantLock();
+	// изменяется только под lock
+	private final Map<Long, Counts> counts = new HashMap<>();
+	private final PopularityIndex hourRanks = new PopularityIndex();
+	private final PopularityIndex dayRanks = new PopularityIndex();
+	private final PopularityIndex weekRanks = new PopularityIndex();
+	private long currentMinute;
+
+	public TrendingIndex(Clock clock) {
+		this.clock = clock;
+		this.currentMinute = epochMinute();
+	}
+
+	// удаление лайка уменьшает счетчики текущего интервала, если в окне у фильма есть лайки:
+	// время каждого лайка не хранится, чтобы память не росла вместе с числом лайков
+	public void likeChanged(long filmId, boolean added) {
+		lock.lock();
+		try {
+			advance();
+			Counts filmCounts = counts.get(filmId);
+			if (added) {
+				if (filmCounts == null) {
+					filmCounts = new Counts();
+					counts.put(filmId, filmCounts);
+				}
+				change(filmId, filmCounts, 1, 1);
+			} else if (filmCounts != null) {
+				change(filmId, filmCounts, filmCounts.hourSum > 0 ? -1 : 0, filmCounts.daySum > 0 ? -1 : 0);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public List<Long> top(TrendingWindow window, int count) {
+		lock.lock();
+		try {
+			advance();
+		} finally {
+			lock.unlock();
+		}
+		return switch (window) {
+			case HOUR -> hourRanks.top(count);
+			case DAY -> dayRanks.top(count);
+			case WEEK -> weekRanks.top(count);
+		};
+	}
+
+	// число фильмов с лайками в буферах
+	public int size() {
+		lock.lock();
+		try {
+			return counts.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void change(long filmId, Counts filmCounts, int minuteDelta, int hourDelta) {
+		int oldHour = filmCounts.hourSum;
+		int oldDay = filmCounts.daySum;
+		int oldWeek = filmCounts.weekSum;
+		filmCounts.minutes[(int) (currentMinute % MINUTES)] += minuteDelta;
+		filmCounts.hourSum += minuteDelta;
+		filmCounts.hours[(int) (currentMinute / MINUTES % HOURS)] += hourDelta;
+		filmCounts.daySum += hourDelta;
+		filmCounts.weekSum += hourDelta;
+		reindex(filmId, filmCounts, oldHour, oldDay, oldWeek);
+		if (filmCounts.isEmpty()) {
+			counts.remove(filmId);
+		}
+	}
+
+	// вычитание интервалов, вышедших из окон с прошлого вызова; вызывается под lock
+	private void advance() {
+		long now = epochMinute();
+		if (now <= currentMinute) {
+			return;
+		}
+		long firstMinute = currentMinute + 1;
+		long lastMinute = Math.min(now, currentMinute + MINUTES);
+		long firstHour = currentMinute / MINUTES + 1;
+		long lastHour = now / MINUTES;
+		boolean weekExpired = lastHour - firstHour >= HOURS;
+		Iterator<Map.Entry<Long, Counts>> iterator = counts.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, Counts> entry = iterator.next();
+			Counts filmCounts = entry.getValue();
+			int oldHour = filmCounts.hourSum;
+			int oldDay = filmCounts.daySum;
+			int oldWeek = filmCounts.weekSum;
+			for (long minute = firstMinute; minute <= lastMinute; minute++) {
+				int slot = (int) (minute % MINUTES);
+				filmCounts.hourSum -= filmCounts.minutes[slot];
+				filmCounts.minutes[slot] = 0;
+			}
+			if (weekExpired) {
+				filmCounts.clearHours();
+			} else {
+				// с началом часа h из суток выходит час h - 24, из недели - час h - 168 (его интервал переиспользуется)
+				for (long hour = firstHour; hour <= lastHour; hour++) {
+					filmCounts.daySum -= filmCounts.hours[(int) ((hour - DAY_HOURS) % HOURS)];
+					int slot = (int) (hour % HOURS);
+					filmCounts.weekSum -= filmCounts.hours[slot];
+					filmCounts.hours[slot] = 0;
+				}
+			}
+			reindex(entry.getKey(), filmCounts, oldHour, oldDay, oldWeek);
+			if (filmCounts.isEmpty()) {
+				iterator.remove();
+			}
+		}
+		currentMinute = now;
+	}
+
+	private void reindex(long filmId, Counts filmCounts, int oldHour, int oldDay, int oldWeek) {
+		move(hourRanks, filmId, oldHour, filmCounts.hourSum);
+		move(dayRanks, filmId, oldDay, filmCounts.daySum);
+		move(weekRanks, filmId, oldWeek, filmCounts.weekSum);
+	}
+
+	// в рейтинге окна только фильмы с положительным числом лайков в нем
+	private static void move(PopularityIndex ranks, long filmId, int oldLikes, int newLikes) {
+		if (oldLikes == newLikes) {
+			return;
+		}
+		if (oldLikes > 0) {
+			ranks.remove(filmId, oldLikes);
+		}
+		if (newLikes > 0) {
+			ranks.add(filmId, newLikes);
+		}
+	}
+
+	private long epochMinute() {
+		return clock.millis() / 60_000;
+	}
+
+	private static class Counts {
+		private final int[] minutes = new int[MINUTES];
+		private final int[] hours = new int[HOURS];
+		private int hourSum;
+		private int daySum;
+		private int weekSum;
+
+		private boolean isEmpty() {
+			return hourSum <= 0 && weekSum <= 0;
+		}
+
+		private void clearHours() {
+			Arrays.fill(hours, 0);
+			daySum = 0;
+			weekSum = 0;
+		}
+	}
+}
@@ -1,17 +1,41 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ImportResult;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserStorage {
 
 	Collection<User> findAll();
 
+	// страница с id больше afterId в порядке возрастания id, не длиннее limit
+	List<User> findPage(long afterId, int limit);
+
 	User create(User user);
 
+	// пакетное сохранение: поля записей проверены заранее, здесь проверяется уникальность.
+	// результаты идут в порядке записей, ошибка одной записи не прерывает пакет
+	List<ImportResult> createAll(List<User> users);
+
 	User update(User updatedUser);
 
 	Optional<User> findUserById(Long id);
-}
\ No newline at end of file
+
+	List<User> findAllByIds(Collection<Long> ids);
+
+	void addFriend(Long userId, Long friendId);
+
+	void deleteFriend(Long userId, Long friendId);
+
+	// пакетное добавление, существование участников проверено заранее
+	void addFriendships(List<Friendship> friendships);
+
+	// число пользователей и дружб (каждая пара друзей - одна дружба) для метрик
+	long count();
+
+	long countFriendships();
+}
@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// объединение мелких записей (лайки, дружбы) из параллельных запросов в пачки:
+// фоновый поток забирает все накопившиеся операции и выполняет их через JDBC batch в одной транзакции.
+// вызывающий поток ждет выполнения своей операции, поэтому после возврата запись уже видна
+@Component
+@Profile("jdbc")
+@Slf4j
+public class JdbcBatchWriter implements AutoCloseable {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+	private final Thread flusher;
+	private volatile boolean closed;
+
+	public JdbcBatchWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+						   @Value("${filmorate.jdbc.batch-size:256}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.batchSize = batchSize;
+		this.flusher = Thread.ofPlatform().name("jdbc-batch-writer").daemon().start(this::run);
+	}
+
+	// операция из нескольких строк одного запроса выполняется целиком в одной транзакции
+	public void write(String sql, List<Object[]> rows) {
+		await(enqueue(sql, rows, null, List.of()));
+	}
+
+	// операция с зависимым запросом (например, изменение лайка и версии фильма): nextRows.get(i) выполняется
+	// запросом nextSql в той же транзакции, только если строка rows.get(i) что-то изменила
+	public void write(String sql, List<Object[]> rows, String nextSql, List<Object[]> nextRows) {
+		await(enqueue(sql, rows, nextSql, nextRows));
+	}
+
+	private CompletableFuture<Void> enqueue(String sql, List<Object[]> rows, String nextSql, List<Object[]> nextRows) {
+		if (closed) {
+			throw new IllegalStateException("Запись в базу данных остановлена.");
+		}
+		Operation operation = new Operation(sql, rows, nextSql, nextRows, new CompletableFuture<>());
+		queue.add(operation);
+		return operation.done();
+	}
+
+	private static void await(CompletableFuture<Void> done) {
+		try {
+			done.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		flusher.interrupt();
+	}
+
+	private void run() {
+		List<Operation> batch = new ArrayList<>();
+		while (!closed) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				break;
+			}
+			queue.drainTo(batch, batchSize - 1);
+			flush(batch);
+			batch.clear();
+		}
+		Operation operation;
+		while ((operation = queue.poll()) != null) {
+			operation.done().completeExceptionally(new IllegalStateException("Запись в базу данных остановлена."));
+		}
+	}
+
+	private void flush(List<Operation> batch) {
+		// подряд идущие операции с одинаковым запросом объединяются в один вызов batchUpdate,
+		// порядок разных запросов сохраняется (например, удаление и повторное добавление лайка)
+		List<Operation> groups = new ArrayList<>();
+		for (Operation operation : batch) {
+			Operation last = groups.isEmpty() ? null : groups.get(groups.size() - 1);
+			if (last != null && last.sql().equals(operation.sql()) && Objects.equals(last.nextSql(), operation.nextSql())) {
+				last.rows().addAll(operation.rows());
+				last.nextRows().addAll(operation.nextRows());
+			} else {
+				groups.add(new Operation(operation.sql(), new ArrayList<>(operation.rows()), operation.nextSql(),
+						new ArrayList<>(operation.nextRows()), null));
+			}
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> groups.forEach(this::execute));
+			batch.forEach(operation -> operation.done().complete(null));
+			log.debug("Записана пачка из {} операций.", batch.size());
+		} catch (RuntimeException e) {
+			// пачка откатилась целиком: выполняем операции по одной, чтобы ошибка досталась только своему запросу
+			log.warn("Пачка из {} операций не записана, повтор по одной: {}.", batch.size(), e.getMessage());
+			for (Operation operation : batch) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> execute(operation));
+					operation.done().complete(null);
+				} catch (RuntimeException operationError) {
+					operation.done().completeExceptionally(operationError);
+				}
+			}
+		}
+	}
+
+	// выполняется внутри транзакции: зависимый запрос получает только строки, чья основная строка что-то изменила
+	private void execute(Operation operation) {
+		int[] counts = jdbcTemplate.batchUpdate(operation.sql(), operation.rows());
+		if (operation.nextSql() == null) {
+			return;
+		}
+		List<Object[]> changed = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+				changed.add(operation.nextRows().get(i));
+			}
+		}
+		if (!changed.isEmpty()) {
+			jdbcTemplate.batchUpdate(operation.nextSql(), changed);
+		}
+	}
+
+	private record Operation(String sql, List<Object[]> rows, String nextSql, List<Object[]> nextRows,
+							 CompletableFuture<Void> done) {
+	}
+}
@@ -0,0 +1,365 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.SearchIndex;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+import ru.yandex.practicum.filmorate.validator.FilmValidator;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+@Repository
+@Profile("jdbc")
+@Slf4j
+public class JdbcFilmStorage implements FilmStorage {
+
+	// вставка только отсутствующей строки: число измененных строк 0 для уже существующей, и версия не меняется
+	private static final String ADD_LIKE = """
+			MERGE INTO likes AS t
+			USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (film_id, user_id)
+			ON t.film_id = s.film_id AND t.user_id = s.user_id
+			WHEN NOT MATCHED THEN INSERT (film_id, user_id) VALUES (s.film_id, s.user_id)""";
+	// загруженные лайки без времени: они не поставлены сейчас и не попадают в рейтинг за последнее время
+	private static final String IMPORT_LIKE = """
+			MERGE INTO likes AS t
+			USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (film_id, user_id)
+			ON t.film_id = s.film_id AND t.user_id = s.user_id
+			WHEN NOT MATCHED THEN INSERT (film_id, user_id, created_at) VALUES (s.film_id, s.user_id, NULL)""";
+	private static final String DELETE_LIKE = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+	private static final String NEXT_VERSION = "UPDATE films SET version = version + 1 WHERE id = ?";
+	// рейтинг считается в базе одним агрегирующим запросом, в приложение попадают только count фильмов
+	private static final String MOST_LIKED = """
+			SELECT f.id
+			FROM films AS f
+			LEFT JOIN likes AS l ON l.film_id = f.id
+			GROUP BY f.id
+			ORDER BY COUNT(l.user_id) DESC, f.id
+			LIMIT ?""";
+	private static final String TRENDING = """
+			SELECT film_id
+			FROM likes
+			WHERE created_at >= ?
+			GROUP BY film_id
+			ORDER BY COUNT(*) DESC, film_id
+			LIMIT ?""";
+	// фильмы, которые лайкали вместе с фильмами пользователя: вес фильма - число пар (лайк пользователя,
+	// лайк другого пользователя с общим фильмом), как у индекса совместных лайков хранилища в памяти
+	private static final String RECOMMENDED = """
+			SELECT other.film_id
+			FROM likes AS own
+			JOIN likes AS neighbour ON neighbour.film_id = own.film_id AND neighbour.user_id <> own.user_id
+			JOIN likes AS other ON other.user_id = neighbour.user_id
+			WHERE own.user_id = ?
+				AND other.film_id NOT IN (SELECT film_id FROM likes WHERE user_id = ?)
+			GROUP BY other.film_id
+			ORDER BY COUNT(*) DESC, other.film_id
+			LIMIT ?""";
+
+	// поиск без индекса: каждое слово ищется как подстрока нормализованного текста фильма,
+	// найденные фильмы упорядочиваются по числу лайков
+	private static final String SEARCH_TEXT =
+			"REPLACE(LOWER(CONCAT(f.name, ' ', COALESCE(f.description, ''))), 'ё', 'е') LIKE ?";
+	private static final String SEARCH = """
+			SELECT f.id
+			FROM films AS f
+			LEFT JOIN likes AS l ON l.film_id = f.id
+			WHERE %s
+			GROUP BY f.id
+			ORDER BY COUNT(l.user_id) DESC, f.id
+			LIMIT ?""";
+
+	private static final RowMapper<Film> FILM_ROW = (rs, rowNum) -> {
+		Date releaseDate = rs.getDate("release_date");
+		return Film.builder()
+				.id(rs.getLong("id"))
+				.name(rs.getString("name"))
+				.description(rs.getString("description"))
+				.releaseDate(releaseDate != null ? IsoDates.of(releaseDate.toLocalDate()) : IsoDates.NONE)
+				.duration(rs.getInt("duration"))
+				.version(rs.getLong("version"))
+				.build();
+	};
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final SimpleJdbcInsert filmInsert;
+	private final JdbcBatchWriter batchWriter;
+	private final FilmValidator validator = new FilmValidator();
+
+	public JdbcFilmStorage(JdbcTemplate jdbcTemplate, JdbcBatchWriter batchWriter) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.filmInsert = new SimpleJdbcInsert(jdbcTemplate)
+				.withTableName("films")
+				.usingColumns("name", "description", "release_date", "duration")
+				.usingGeneratedKeyColumns("id");
+		this.batchWriter = batchWriter;
+	}
+
+	@Override
+	public Collection<Film> findAll() {
+		List<Film> films = jdbcTemplate.query("SELECT * FROM films ORDER BY id", FILM_ROW);
+		Map<Long, SortedLongSet> likes = new HashMap<>();
+		jdbcTemplate.query("SELECT film_id, user_id FROM likes ORDER BY film_id, user_id", rs -> {
+			likes.computeIfAbsent(rs.getLong("film_id"), id -> new SortedLongSet()).add(rs.getLong("user_id"));
+		});
+		films.forEach(film -> film.setLikes(likes.getOrDefault(film.getId(), new SortedLongSet())));
+		log.info("Список фильмов получен.");
+		return films;
+	}
+
+	// выборка по первичному ключу: id > afterId ORDER BY id идет по индексу без сортировки
+	@Override
+	public List<Film> findPage(long afterId, int limit) {
+		return findAllByIds(jdbcTemplate.queryForList("SELECT id FROM films WHERE id > ? ORDER BY id LIMIT ?",
+				Long.class, afterId, limit));
+	}
+
+	@Override
+	public Optional<Film> findFilmById(Long id) {
+		List<Film> films = jdbcTemplate.query("SELECT * FROM films WHERE id = ?", FILM_ROW, id);
+		if (films.isEmpty()) {
+			throw new NotFoundException("Фильм с id " + id + " не найден.");
+		}
+		Film film = films.get(0);
+		long[] likes = jdbcTemplate.queryForList("SELECT user_id FROM likes WHERE film_id = ? ORDER BY user_id",
+						Long.class, id).stream()
+				.mapToLong(Long::longValue)
+				.toArray();
+		film.setLikes(SortedLongSet.ofSorted(likes));
+		return Optional.of(film);
+	}
+
+	// фильмы и их лайки загружаются двумя запросами независимо от количества id
+	@Override
+	public List<Film> findAllByIds(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Map<String, Object> parameters = Map.of("ids", ids);
+		Map<Long, Film> films = new HashMap<>();
+		namedJdbcTemplate.query("SELECT * FROM films WHERE id IN (:ids)", parameters, FILM_ROW)
+				.forEach(film -> {
+					film.setLikes(new SortedLongSet());
+					films.put(film.getId(), film);
+				});
+		namedJdbcTemplate.query("SELECT film_id, user_id FROM likes WHERE film_id IN (:ids)", parameters, rs -> {
+			films.get(rs.getLong("film_id")).getLikes().add(rs.getLong("user_id"));
+		});
+		List<Film> result = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			Film film = films.get(id);
+			if (film == null) {
+				throw new NotFoundException("Фильм с id " + id + " не найден.");
+			}
+			result.add(film);
+		}
+		return result;
+	}
+
+	@Override
+	public Film create(Film film) {
+		// проверяем выполнение необходимых условий
+		validator.validate(film, null, this::findIdByName);
+
+		try {
+			Number id = filmInsert.executeAndReturnKey(Map.of(
+					"name", film.getName(),
+					"description", film.getDescription(),
+					"release_date", Date.valueOf(IsoDates.toLocalDate(film.getReleaseDate())),
+					"duration", film.getDuration()));
+			film.setId(id.longValue());
+		} catch (DuplicateKeyException e) {
+			// параллельный запрос успел сохранить фильм с тем же названием
+			log.error("Конфликт одинаковых названий.");
+			throw new DuplicatedDataException("Этот фильм уже находится в базе.");
+		}
+		film.setLikes(new SortedLongSet());
+		film.setVersion(1);
+		log.info("Фильм сохранен.");
+		return film;
+	}
+
+	// вставка по одной строке: каждой строке нужен свой сгенерированный id и своя проверка уникальности
+	@Override
+	public List<ImportResult> createAll(List<Film> newFilms) {
+		List<ImportResult> results = new ArrayList<>(newFilms.size());
+		for (Film film : newFilms) {
+			try {
+				results.add(ImportResult.builder().id(create(film).getId()).build());
+			} catch (DuplicatedDataException e) {
+				results.add(ImportResult.builder().error(e.getMessage()).build());
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public Film update(Film newFilm) {
+		// проверяем необходимые условия
+		if (newFilm.getId() == null) {
+			log.error("Пустое поле id.");
+			throw new NotFoundException("Id должен быть указан");
+		}
+		// проверяем выполнение необходимых условий
+		validator.validate(newFilm, newFilm.getId(), this::findIdByName);
+
+		int updated;
+		try {
+			// незаполненные поля сохраняют прежние значения
+			updated = jdbcTemplate.update("""
+							UPDATE films
+							SET name = COALESCE(?, name),
+								description = COALESCE(?, description),
+								release_date = COALESCE(?, release_date),
+								duration = CASE WHEN ? > 0 THEN ? ELSE duration END,
+								version = version + 1
+							WHERE id = ?""",
+					newFilm.getName(),
+					newFilm.getDescription(),
+					newFilm.getReleaseDate() != IsoDates.NONE ? Date.valueOf(IsoDates.toLocalDate(newFilm.getReleaseDate())) : null,
+					newFilm.getDuration(),
+					newFilm.getDuration(),
+					newFilm.getId());
+		} catch (DuplicateKeyException e) {
+			log.error("Конфликт одинаковых названий.");
+			throw new DuplicatedDataException("Этот фильм уже находится в базе.");
+		}
+		if (updated == 0) {
+			log.error("Отсутствует фильм с данным id.");
+			throw new NotFoundException("Фильм с id = " + newFilm.getId() + " не найден");
+		}
+		log.info("Фильм обновлен.");
+		return findFilmById(newFilm.getId()).orElseThrow();
+	}
+
+	@Override
+	public void addLike(Long filmId, Long userId) {
+		batchWriter.write(ADD_LIKE, List.<Object[]>of(new Object[] {filmId, userId}),
+				NEXT_VERSION, List.<Object[]>of(new Object[] {filmId}));
+	}
+
+	@Override
+	public void deleteLike(Long filmId, Long userId) {
+		batchWriter.write(DELETE_LIKE, List.<Object[]>of(new Object[] {filmId, userId}),
+				NEXT_VERSION, List.<Object[]>of(new Object[] {filmId}));
+	}
+
+	// все лайки пакета уходят одной операцией JDBC batch
+	@Override
+	public void addLikes(List<Like> likes) {
+		List<Object[]> rows = new ArrayList<>(likes.size());
+		List<Object[]> versions = new ArrayList<>(likes.size());
+		for (Like like : likes) {
+			rows.add(new Object[] {like.getFilmId(), like.getUserId()});
+			versions.add(new Object[] {like.getFilmId()});
+		}
+		batchWriter.write(IMPORT_LIKE, rows, NEXT_VERSION, versions);
+	}
+
+	@Override
+	public List<Film> getMostLiked(int count) {
+		return findAllByIds(jdbcTemplate.queryForList(MOST_LIKED, Long.class, count));
+	}
+
+	// окно считается по времени лайков в базе; повторный MERGE существующего лайка время не меняет
+	@Override
+	public List<Film> getTrending(TrendingWindow window, int count) {
+		Timestamp from = Timestamp.from(Instant.now().minus(window.getDuration()));
+		return findAllByIds(jdbcTemplate.queryForList(TRENDING, Long.class, from, count));
+	}
+
+	// слова запроса нормализуются так же, как в индексе хранилища в памяти, и состоят только из букв и цифр,
+	// поэтому не содержат символов шаблона LIKE
+	@Override
+	public List<Film> search(String query, int limit) {
+		List<String> words = SearchIndex.tokenize(query);
+		if (words.isEmpty()) {
+			return List.of();
+		}
+		List<Object> parameters = new ArrayList<>(words.size() + 1);
+		for (String word : words) {
+			parameters.add("%" + word + "%");
+		}
+		parameters.add(limit);
+		String sql = SEARCH.formatted(String.join(" AND ", Collections.nCopies(words.size(), SEARCH_TEXT)));
+		return findAllByIds(jdbcTemplate.queryForList(sql, Long.class, parameters.toArray()));
+	}
+
+	// условия только на заданные границы, чтобы база могла пройти по индексу даты релиза или продолжительности
+	@Override
+	public List<Film> findByRange(int releasedFrom, int releasedTo, int minDuration, int maxDuration) {
+		List<String> conditions = new ArrayList<>();
+		List<Object> parameters = new ArrayList<>();
+		if (releasedFrom != Integer.MIN_VALUE) {
+			conditions.add("f.release_date >= ?");
+			parameters.add(Date.valueOf(IsoDates.toLocalDate(releasedFrom)));
+		}
+		if (releasedTo != Integer.MAX_VALUE) {
+			conditions.add("f.release_date <= ?");
+			parameters.add(Date.valueOf(IsoDates.toLocalDate(releasedTo)));
+		}
+		if (minDuration != Integer.MIN_VALUE) {
+			conditions.add("f.duration >= ?");
+			parameters.add(minDuration);
+		}
+		if (maxDuration != Integer.MAX_VALUE) {
+			conditions.add("f.duration <= ?");
+			parameters.add(maxDuration);
+		}
+		String where = conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions);
+		List<Film> films = jdbcTemplate.query("SELECT f.* FROM films AS f WHERE " + where
+				+ " ORDER BY f.release_date, f.id", FILM_ROW, parameters.toArray());
+		Map<Long, Film> filmsById = new HashMap<>();
+		films.forEach(film -> {
+			film.setLikes(new SortedLongSet());
+			filmsById.put(film.getId(), film);
+		});
+		jdbcTemplate.query("SELECT l.film_id, l.user_id FROM likes AS l JOIN films AS f ON f.id = l.film_id WHERE "
+				+ where, rs -> {
+			Film film = filmsById.get(rs.getLong("film_id"));
+			// фильм мог попасть в диапазон между двумя запросами
+			if (film != null) {
+				film.getLikes().add(rs.getLong("user_id"));
+			}
+		}, parameters.toArray());
+		return films;
+	}
+
+	@Override
+	public List<Film> getRecommended(long userId, int limit) {
+		return findAllByIds(jdbcTemplate.queryForList(RECOMMENDED, Long.class, userId, userId, limit));
+	}
+
+	@Override
+	public long count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM films", Long.class);
+	}
+
+	@Override
+	public long countLikes() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes", Long.class);
+	}
+
+	private Long findIdByName(String name) {
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM films WHERE name = ?", Long.class, name);
+		return ids.isEmpty() ? null : ids.get(0);
+	}
+}
@@ -0,0 +1,251 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+import ru.yandex.practicum.filmorate.validator.UserValidator;
+
+import java.sql.Date;
+import java.util.*;
+
+@Repository
+@Profile("jdbc")
+@Slf4j
+public class JdbcUserStorage implements UserStorage {
+
+	// дружба взаимная, поэтому каждая операция пишет обе строки пары
+	// вставка только отсутствующей строки: число измененных строк 0 для уже существующей, и версия не меняется
+	private static final String ADD_FRIEND = """
+			MERGE INTO friendships AS t
+			USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (user_id, friend_id)
+			ON t.user_id = s.user_id AND t.friend_id = s.friend_id
+			WHEN NOT MATCHED THEN INSERT (user_id, friend_id) VALUES (s.user_id, s.friend_id)""";
+	private static final String DELETE_FRIEND = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
+	private static final String NEXT_VERSION = "UPDATE users SET version = version + 1 WHERE id = ?";
+
+	private static final RowMapper<User> USER_ROW = (rs, rowNum) -> {
+		Date birthday = rs.getDate("birthday");
+		return User.builder()
+				.id(rs.getLong("id"))
+				.email(rs.getString("email"))
+				.login(rs.getString("login"))
+				.name(rs.getString("name"))
+				.birthday(birthday != null ? IsoDates.of(birthday.toLocalDate()) : IsoDates.NONE)
+				.version(rs.getLong("version"))
+				.build();
+	};
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final SimpleJdbcInsert userInsert;
+	private final JdbcBatchWriter batchWriter;
+	private final UserValidator validator = new UserValidator();
+
+	public JdbcUserStorage(JdbcTemplate jdbcTemplate, JdbcBatchWriter batchWriter) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.userInsert = new SimpleJdbcInsert(jdbcTemplate)
+				.withTableName("users")
+				.usingColumns("email", "login", "name", "birthday")
+				.usingGeneratedKeyColumns("id");
+		this.batchWriter = batchWriter;
+	}
+
+	@Override
+	public Collection<User> findAll() {
+		List<User> users = jdbcTemplate.query("SELECT * FROM users ORDER BY id", USER_ROW);
+		Map<Long, SortedLongSet> friends = new HashMap<>();
+		jdbcTemplate.query("SELECT user_id, friend_id FROM friendships ORDER BY user_id, friend_id", rs -> {
+			friends.computeIfAbsent(rs.getLong("user_id"), id -> new SortedLongSet()).add(rs.getLong("friend_id"));
+		});
+		users.forEach(user -> user.setFriends(friends.getOrDefault(user.getId(), new SortedLongSet())));
+		log.info("Список пользователей получен.");
+		return users;
+	}
+
+	// выборка по первичному ключу: id > afterId ORDER BY id идет по индексу без сортировки
+	@Override
+	public List<User> findPage(long afterId, int limit) {
+		return findAllByIds(jdbcTemplate.queryForList("SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?",
+				Long.class, afterId, limit));
+	}
+
+	@Override
+	public Optional<User> findUserById(Long id) {
+		List<User> users = jdbcTemplate.query("SELECT * FROM users WHERE id = ?", USER_ROW, id);
+		if (users.isEmpty()) {
+			throw new NotFoundException("Пользователь с id " + id + " не найден.");
+		}
+		User user = users.get(0);
+		long[] friends = jdbcTemplate.queryForList(
+						"SELECT friend_id FROM friendships WHERE user_id = ? ORDER BY friend_id", Long.class, id)
+				.stream()
+				.mapToLong(Long::longValue)
+				.toArray();
+		user.setFriends(SortedLongSet.ofSorted(friends));
+		return Optional.of(user);
+	}
+
+	// пользователи и их друзья загружаются двумя запросами независимо от количества id
+	@Override
+	public List<User> findAllByIds(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Map<String, Object> parameters = Map.of("ids", ids);
+		Map<Long, User> users = new HashMap<>();
+		namedJdbcTemplate.query("SELECT * FROM users WHERE id IN (:ids)", parameters, USER_ROW)
+				.forEach(user -> {
+					user.setFriends(new SortedLongSet());
+					users.put(user.getId(), user);
+				});
+		namedJdbcTemplate.query("SELECT user_id, friend_id FROM friendships WHERE user_id IN (:ids)", parameters,
+				rs -> {
+					users.get(rs.getLong("user_id")).getFriends().add(rs.getLong("friend_id"));
+				});
+		List<User> result = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			User user = users.get(id);
+			if (user == null) {
+				throw new NotFoundException("Пользователь с id " + id + " не найден.");
+			}
+			result.add(user);
+		}
+		return result;
+	}
+
+	@Override
+	public User create(User user) {
+		// проверяем выполнение необходимых условий
+		validator.validate(user, null, this::findIdByEmail);
+
+		// формируем дополнительные данные
+		if (user.getName() == null || user.getName().isBlank()) {
+			log.debug("Запись login в пустое поле имени.");
+			user.setName(user.getLogin());
+		}
+		try {
+			Number id = userInsert.executeAndReturnKey(Map.of(
+					"email", user.getEmail(),
+					"login", user.getLogin(),
+					"name", user.getName(),
+					"birthday", Date.valueOf(IsoDates.toLocalDate(user.getBirthday()))));
+			user.setId(id.longValue());
+		} catch (DuplicateKeyException e) {
+			// параллельный запрос успел сохранить пользователя с тем же имейлом
+			log.error("Конфликт одинаковых имейлов.");
+			throw new DuplicatedDataException("Этот имейл уже используется.");
+		}
+		user.setFriends(new SortedLongSet());
+		user.setVersion(1);
+		log.info("Пользователь сохранен.");
+		return user;
+	}
+
+	// вставка по одной строке: каждой строке нужен свой сгенерированный id и своя проверка уникальности
+	@Override
+	public List<ImportResult> createAll(List<User> newUsers) {
+		List<ImportResult> results = new ArrayList<>(newUsers.size());
+		for (User user : newUsers) {
+			try {
+				results.add(ImportResult.builder().id(create(user).getId()).build());
+			} catch (DuplicatedDataException e) {
+				results.add(ImportResult.builder().error(e.getMessage()).build());
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public User update(User newUser) {
+		// проверяем необходимые условия
+		if (newUser.getId() == null) {
+			log.error("Пустое поле id.");
+			throw new NotFoundException("Id должен быть указан.");
+		}
+		// проверяем выполнение необходимых условий
+		validator.validate(newUser, newUser.getId(), this::findIdByEmail);
+
+		int updated;
+		try {
+			// незаполненные поля сохраняют прежние значения
+			updated = jdbcTemplate.update("""
+							UPDATE users
+							SET email = COALESCE(?, email),
+								login = COALESCE(?, login),
+								name = COALESCE(?, name),
+								birthday = COALESCE(?, birthday),
+								version = version + 1
+							WHERE id = ?""",
+					newUser.getEmail(),
+					newUser.getLogin(),
+					newUser.getName(),
+					newUser.getBirthday() != IsoDates.NONE ? Date.valueOf(IsoDates.toLocalDate(newUser.getBirthday())) : null,
+					newUser.getId());
+		} catch (DuplicateKeyException e) {
+			log.error("Конфликт одинаковых имейлов.");
+			throw new DuplicatedDataException("Этот имейл уже используется.");
+		}
+		if (updated == 0) {
+			log.error("Отсутствует пользователь с данным id.");
+			throw new NotFoundException("Пользователь с id = " + newUser.getId() + " не найден.");
+		}
+		log.info("Пользователь обновлен.");
+		return findUserById(newUser.getId()).orElseThrow();
+	}
+
+	@Override
+	public void addFriend(Long userId, Long friendId) {
+		batchWriter.write(ADD_FRIEND, List.of(new Object[] {userId, friendId}, new Object[] {friendId, userId}),
+				NEXT_VERSION, List.of(new Object[] {userId}, new Object[] {friendId}));
+	}
+
+	@Override
+	public void deleteFriend(Long userId, Long friendId) {
+		batchWriter.write(DELETE_FRIEND, List.of(new Object[] {userId, friendId}, new Object[] {friendId, userId}),
+				NEXT_VERSION, List.of(new Object[] {userId}, new Object[] {friendId}));
+	}
+
+	// все дружбы пакета (обе строки каждой пары) уходят одной операцией JDBC batch
+	@Override
+	public void addFriendships(List<Friendship> friendships) {
+		List<Object[]> rows = new ArrayList<>(friendships.size() * 2);
+		List<Object[]> versions = new ArrayList<>(friendships.size() * 2);
+		for (Friendship friendship : friendships) {
+			rows.add(new Object[] {friendship.getUserId(), friendship.getFriendId()});
+			rows.add(new Object[] {friendship.getFriendId(), friendship.getUserId()});
+			versions.add(new Object[] {friendship.getUserId()});
+			versions.add(new Object[] {friendship.getFriendId()});
+		}
+		batchWriter.write(ADD_FRIEND, rows, NEXT_VERSION, versions);
+	}
+
+	@Override
+	public long count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+	}
+
+	// дружба хранится двумя строками, по одной на каждого друга
+	@Override
+	public long countFriendships() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM friendships", Long.class) / 2;
+	}
+
+	private Long findIdByEmail(String email) {
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM users WHERE email = ?", Long.class, email);
+		return ids.isEmpty() ? null : ids.get(0);
+	}
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// режим хранения с журналом: при старте загружается последний снимок (если включены снимки),
+// затем журнал воспроизводится с отметки снимка и подключается к хранилищам
+@Configuration
+@Profile("!jdbc")
+@ConditionalOnProperty(name = "filmorate.wal.enabled", havingValue = "true")
+@Slf4j
+public class JournalConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "filmorate.snapshot.enabled", havingValue = "true")
+	public SnapshotStore snapshotStore(@Value("${filmorate.snapshot.path:data/filmorate.snapshot}") Path path)
+			throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		return new SnapshotStore(path);
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(name = "filmorate.snapshot.enabled", havingValue = "true")
+	public SnapshotScheduler snapshotScheduler(SnapshotStore snapshotStore,
+											   WriteAheadLog writeAheadLog,
+											   InMemoryFilmStorage filmStorage,
+											   InMemoryUserStorage userStorage,
+											   @Value("${filmorate.snapshot.interval:10m}") Duration interval) {
+		return new SnapshotScheduler(snapshotStore, writeAheadLog, filmStorage, userStorage, interval);
+	}
+
+	@Bean(destroyMethod = "close")
+	public WriteAheadLog writeAheadLog(@Value("${filmorate.wal.path:data/filmorate.wal}") Path path,
+									   @Value("${filmorate.wal.batch-size:64}") int batchSize,
+									   @Value("${filmorate.wal.max-delay:0ms}") Duration maxDelay,
+									   @Value("${filmorate.wal.await-sync:true}") boolean awaitSync,
+									   InMemoryFilmStorage filmStorage,
+									   InMemoryUserStorage userStorage,
+									   ObjectProvider<SnapshotStore> snapshotStore) throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		WriteAheadLog writeAheadLog = new WriteAheadLog(path, batchSize, maxDelay, awaitSync);
+		SnapshotStore snapshots = snapshotStore.getIfAvailable();
+		long journalPosition = snapshots != null ? snapshots.load(filmStorage, userStorage) : 0;
+		writeAheadLog.replay(filmStorage, userStorage, journalPosition);
+		writeAheadLog.open();
+		filmStorage.setJournal(writeAheadLog);
+		userStorage.setJournal(writeAheadLog);
+		log.info("Журнал изменений {} подключен.", path);
+		return writeAheadLog;
+	}
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// периодическая запись снимков в фоновом потоке
+@Slf4j
+public class SnapshotScheduler implements Closeable {
+
+	private final SnapshotStore snapshotStore;
+	private final WriteAheadLog writeAheadLog;
+	private final InMemoryFilmStorage filmStorage;
+	private final InMemoryUserStorage userStorage;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofPlatform().name("snapshot-writer").daemon().factory());
+
+	public SnapshotScheduler(SnapshotStore snapshotStore, WriteAheadLog writeAheadLog,
+							 InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage, Duration interval) {
+		this.snapshotStore = snapshotStore;
+		this.writeAheadLog = writeAheadLog;
+		this.filmStorage = filmStorage;
+		this.userStorage = userStorage;
+		executor.scheduleWithFixedDelay(this::takeSnapshot, interval.toMillis(), interval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	public void takeSnapshot() {
+		try {
+			// отметка журнала берется до чтения хранилищ. изменения сначала пишутся в журнал, потом в память,
+			// поэтому перед чтением дожидаемся, пока все записи до отметки будут применены
+			long position = writeAheadLog.position();
+			filmStorage.awaitJournaledChanges();
+			userStorage.awaitJournaledChanges();
+			snapshotStore.write(filmStorage, userStorage, position);
+		} catch (IOException e) {
+			log.error("Не удалось записать снимок: {}.", e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
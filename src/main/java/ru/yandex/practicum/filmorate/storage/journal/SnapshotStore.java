@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// снимок хранилищ в колоночном двоичном формате: сначала все id, затем каждое поле отдельным столбцом,
+// затем связи (лайки, друзья) в виде массива количеств и общего массива id.
+// снимок пишется без блокировки хранилищ, поэтому может содержать изменения, сделанные после отметки журнала;
+// при старте журнал воспроизводится с отметки, и эти изменения повторно применяются без вреда
+@Slf4j
+public class SnapshotStore {
+
+	private static final int MAGIC = 0x464D5331;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Path path;
+
+	public SnapshotStore(Path path) {
+		this.path = path;
+	}
+
+	// journalPosition - позиция журнала, взятая до начала чтения хранилищ
+	public void write(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage, long journalPosition)
+			throws IOException {
+		long start = System.nanoTime();
+		List<Film> films = new ArrayList<>(filmStorage.findAll());
+		List<long[]> likes = new ArrayList<>(films.size());
+		films.forEach(film -> likes.add(film.getLikes().toLongArray()));
+		List<User> users = new ArrayList<>(userStorage.findAll());
+		List<long[]> friends = new ArrayList<>(users.size());
+		users.forEach(user -> friends.add(user.getFriends().toLongArray()));
+
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+			output.writeInt(MAGIC);
+			output.writeLong(journalPosition);
+
+			output.writeInt(films.size());
+			for (Film film : films) {
+				output.writeLong(film.getId());
+			}
+			for (Film film : films) {
+				output.writeInt(film.getDuration());
+			}
+			for (Film film : films) {
+				writeString(output, film.getName());
+			}
+			for (Film film : films) {
+				writeString(output, film.getDescription());
+			}
+			for (Film film : films) {
+				writeString(output, IsoDates.format(film.getReleaseDate()));
+			}
+			writeAdjacency(output, likes);
+
+			output.writeInt(users.size());
+			for (User user : users) {
+				output.writeLong(user.getId());
+			}
+			for (User user : users) {
+				writeString(output, user.getEmail());
+			}
+			for (User user : users) {
+				writeString(output, user.getLogin());
+			}
+			for (User user : users) {
+				writeString(output, user.getName());
+			}
+			for (User user : users) {
+				writeString(output, IsoDates.format(user.getBirthday()));
+			}
+			writeAdjacency(output, friends);
+		}
+		try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+			file.force(true);
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Снимок {} записан за {} мс: фильмов {}, пользователей {}.", path,
+				(System.nanoTime() - start) / 1_000_000, films.size(), users.size());
+	}
+
+	// загрузка снимка через отображение файла в память; возвращает позицию журнала, с которой продолжать
+	public long load(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage) throws IOException {
+		if (!Files.exists(path)) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Файл " + path + " не является снимком хранилища.");
+			}
+			long journalPosition = buffer.getLong();
+
+			int filmsCount = buffer.getInt();
+			long[] filmIds = readLongs(buffer, filmsCount);
+			int[] durations = readInts(buffer, filmsCount);
+			String[] names = readStrings(buffer, filmsCount);
+			String[] descriptions = readStrings(buffer, filmsCount);
+			String[] releaseDates = readStrings(buffer, filmsCount);
+			long[][] likes = readAdjacency(buffer, filmsCount);
+			for (int i = 0; i < filmsCount; i++) {
+				filmStorage.restore(Film.builder()
+						.id(filmIds[i])
+						.name(names[i])
+						.description(descriptions[i])
+						.releaseDate(releaseDates[i])
+						.duration(durations[i])
+						.likes(SortedLongSet.ofSorted(likes[i]))
+						.build());
+			}
+
+			int usersCount = buffer.getInt();
+			long[] userIds = readLongs(buffer, usersCount);
+			String[] emails = readStrings(buffer, usersCount);
+			String[] logins = readStrings(buffer, usersCount);
+			String[] userNames = readStrings(buffer, usersCount);
+			String[] birthdays = readStrings(buffer, usersCount);
+			long[][] friends = readAdjacency(buffer, usersCount);
+			for (int i = 0; i < usersCount; i++) {
+				userStorage.restore(User.builder()
+						.id(userIds[i])
+						.email(emails[i])
+						.login(logins[i])
+						.name(userNames[i])
+						.birthday(birthdays[i])
+						.friends(SortedLongSet.ofSorted(friends[i]))
+						.build());
+			}
+			log.info("Снимок {} загружен за {} мс: фильмов {}, пользователей {}.", path,
+					(System.nanoTime() - start) / 1_000_000, filmsCount, usersCount);
+			return journalPosition;
+		}
+	}
+
+	private static void writeAdjacency(DataOutputStream output, List<long[]> adjacency) throws IOException {
+		for (long[] ids : adjacency) {
+			output.writeInt(ids.length);
+		}
+		for (long[] ids : adjacency) {
+			for (long id : ids) {
+				output.writeLong(id);
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static long[][] readAdjacency(ByteBuffer buffer, int count) {
+		int[] sizes = readInts(buffer, count);
+		long[][] adjacency = new long[count][];
+		for (int i = 0; i < count; i++) {
+			adjacency[i] = readLongs(buffer, sizes[i]);
+		}
+		return adjacency;
+	}
+
+	private static long[] readLongs(ByteBuffer buffer, int count) {
+		long[] values = new long[count];
+		buffer.asLongBuffer().get(values);
+		buffer.position(buffer.position() + count * Long.BYTES);
+		return values;
+	}
+
+	private static int[] readInts(ByteBuffer buffer, int count) {
+		int[] values = new int[count];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + count * Integer.BYTES);
+		return values;
+	}
+
+	private static String[] readStrings(ByteBuffer buffer, int count) {
+		String[] values = new String[count];
+		byte[] bytes = new byte[256];
+		for (int i = 0; i < count; i++) {
+			int length = buffer.getInt();
+			if (length < 0) {
+				continue;
+			}
+			if (length > bytes.length) {
+				bytes = new byte[length];
+			}
+			buffer.get(bytes, 0, length);
+			values[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+		return values;
+	}
+}
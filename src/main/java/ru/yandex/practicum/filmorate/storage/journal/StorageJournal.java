@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+// журнал изменений хранилищ; методы записи вызываются под блокировками хранилища,
+// чтобы порядок записей совпадал с порядком изменений, и возвращают номер записи,
+// а ожидание сброса на диск (awaitDurable) выполняется уже после снятия блокировок
+public interface StorageJournal {
+
+	StorageJournal DISABLED = new StorageJournal() {
+		@Override
+		public long filmSaved(Film film) {
+			return 0;
+		}
+
+		@Override
+		public long userSaved(User user) {
+			return 0;
+		}
+
+		@Override
+		public long likeChanged(long filmId, long userId, boolean added) {
+			return 0;
+		}
+
+		@Override
+		public long friendshipChanged(long userId, long friendId, boolean added) {
+			return 0;
+		}
+
+		@Override
+		public void awaitDurable(long recordNumber) {
+		}
+	};
+
+	long filmSaved(Film film);
+
+	long userSaved(User user);
+
+	long likeChanged(long filmId, long userId, boolean added);
+
+	long friendshipChanged(long userId, long friendId, boolean added);
+
+	void awaitDurable(long recordNumber);
+}
@@ -0,0 +1,373 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// двоичный журнал изменений с групповой фиксацией: записи копятся в буфере,
+// фоновый поток пишет их пачкой и выполняет один fsync на всю пачку.
+// формат записи: [int длина][byte тип + данные][int crc32]
+@Slf4j
+public class WriteAheadLog implements StorageJournal, Closeable {
+
+	private static final byte FILM_SAVED = 1;
+	private static final byte USER_SAVED = 2;
+	private static final byte LIKE_ADDED = 3;
+	private static final byte LIKE_DELETED = 4;
+	private static final byte FRIEND_ADDED = 5;
+	private static final byte FRIEND_DELETED = 6;
+	private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+	private final Path path;
+	private final int batchSize;
+	private final long maxDelayNanos;
+	private final boolean awaitSync;
+
+	// ReentrantLock, а не synchronized: запросы на виртуальных потоках ждут fsync, не закрепляя поток-носитель
+	private final Lock lock = new ReentrantLock();
+	private final Condition pendingAvailable = lock.newCondition();
+	private final Condition durableAdvanced = lock.newCondition();
+	private final RecordBuffer scratch = new RecordBuffer();
+	private final DataOutputStream scratchOutput = new DataOutputStream(scratch);
+	private final CRC32 crc = new CRC32();
+	private RecordBuffer pending = new RecordBuffer();
+	private RecordBuffer flushing = new RecordBuffer();
+	private int pendingRecords;
+	private long lastRecord;
+	private long durableRecord;
+	private long durableBytes;
+	private boolean closed;
+	private IOException failure;
+
+	private FileChannel channel;
+	private Thread writer;
+
+	// batchSize и maxDelay: фоновый поток ждет до maxDelay, пока не наберется batchSize записей;
+	// awaitSync: ждать ли вызывающему потоку сброса своей записи на диск
+	public WriteAheadLog(Path path, int batchSize, Duration maxDelay, boolean awaitSync) {
+		this.path = path;
+		this.batchSize = Math.max(1, batchSize);
+		this.maxDelayNanos = maxDelay.toNanos();
+		this.awaitSync = awaitSync;
+	}
+
+	// применение записей журнала к хранилищам начиная с позиции fromPosition (0 - с начала); вызывается до open()
+	public long replay(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage, long fromPosition)
+			throws IOException {
+		if (!Files.exists(path)) {
+			return 0;
+		}
+		if (fromPosition > Files.size(path)) {
+			throw new IOException("Журнал " + path + " короче позиции " + fromPosition + ", указанной в снимке.");
+		}
+		long validLength = fromPosition;
+		long count = 0;
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			input.skipNBytes(fromPosition);
+			while (true) {
+				byte[] record;
+				int checksum;
+				try {
+					int length = input.readInt();
+					if (length <= 0 || length > MAX_RECORD_LENGTH) {
+						break;
+					}
+					record = new byte[length];
+					input.readFully(record);
+					checksum = input.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				crc.reset();
+				crc.update(record);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				apply(record, filmStorage, userStorage);
+				validLength += Integer.BYTES + record.length + Integer.BYTES;
+				count++;
+			}
+		}
+		// отрезаем недописанный хвост, оставшийся после аварийной остановки
+		if (validLength < Files.size(path)) {
+			log.warn("В журнале {} обнаружена поврежденная запись, хвост журнала отброшен.", path);
+			try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				file.truncate(validLength);
+			}
+		}
+		log.info("Из журнала {} восстановлено записей: {}.", path, count);
+		return count;
+	}
+
+	public void open() throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		durableBytes = channel.size();
+		// отдельный поток платформы: fsync блокирует поток целиком и на виртуальном потоке занял бы носитель
+		writer = Thread.ofPlatform()
+				.name("wal-writer")
+				.daemon()
+				.start(this::writeLoop);
+	}
+
+	// позиция конца сброшенной на диск части журнала; используется как отметка для снимка. записи после нее
+	// уже могут быть в снимке, но их повторное применение безопасно, а файл после сбоя не бывает короче нее
+	public long position() {
+		lock.lock();
+		try {
+			return durableBytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public long filmSaved(Film film) {
+		return append(FILM_SAVED, output -> {
+			output.writeLong(film.getId());
+			writeString(output, film.getName());
+			writeString(output, film.getDescription());
+			writeString(output, IsoDates.format(film.getReleaseDate()));
+			output.writeInt(film.getDuration());
+		});
+	}
+
+	@Override
+	public long userSaved(User user) {
+		return append(USER_SAVED, output -> {
+			output.writeLong(user.getId());
+			writeString(output, user.getEmail());
+			writeString(output, user.getLogin());
+			writeString(output, user.getName());
+			writeString(output, IsoDates.format(user.getBirthday()));
+		});
+	}
+
+	@Override
+	public long likeChanged(long filmId, long userId, boolean added) {
+		return append(added ? LIKE_ADDED : LIKE_DELETED, output -> {
+			output.writeLong(filmId);
+			output.writeLong(userId);
+		});
+	}
+
+	@Override
+	public long friendshipChanged(long userId, long friendId, boolean added) {
+		return append(added ? FRIEND_ADDED : FRIEND_DELETED, output -> {
+			output.writeLong(userId);
+			output.writeLong(friendId);
+		});
+	}
+
+	@Override
+	public void awaitDurable(long recordNumber) {
+		if (!awaitSync) {
+			return;
+		}
+		lock.lock();
+		try {
+			while (durableRecord < recordNumber && failure == null) {
+				durableAdvanced.awaitUninterruptibly();
+			}
+			if (failure != null) {
+				throw new UncheckedIOException(failure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.lock();
+		try {
+			closed = true;
+			pendingAvailable.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		if (writer != null) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	private long append(byte type, RecordBody body) {
+		lock.lock();
+		try {
+			if (closed) {
+				throw new IllegalStateException("Журнал " + path + " закрыт.");
+			}
+			if (failure != null) {
+				throw new UncheckedIOException(failure);
+			}
+			scratch.reset();
+			scratchOutput.writeByte(type);
+			body.write(scratchOutput);
+			crc.reset();
+			crc.update(scratch.array(), 0, scratch.size());
+			pending.writeInt(scratch.size());
+			pending.write(scratch.array(), 0, scratch.size());
+			pending.writeInt((int) crc.getValue());
+			pendingRecords++;
+			if (pendingRecords == 1 || pendingRecords == batchSize) {
+				pendingAvailable.signal();
+			}
+			return ++lastRecord;
+		} catch (UTFDataFormatException e) {
+			// запись собирается в scratch, поэтому буфер журнала не тронут, а хранилище еще не изменено
+			throw new ConditionsNotMetException("Строковые поля длиннее 65535 байт в UTF-8 не сохраняются.");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void writeLoop() {
+		while (true) {
+			long batchEnd;
+			lock.lock();
+			try {
+				while (!closed && pendingRecords == 0) {
+					pendingAvailable.awaitUninterruptibly();
+				}
+				// даем пачке наполниться, но не дольше maxDelay
+				long remaining = maxDelayNanos;
+				while (!closed && pendingRecords < batchSize && remaining > 0) {
+					remaining = pendingAvailable.awaitNanos(remaining);
+				}
+				if (pendingRecords == 0) {
+					return;
+				}
+				RecordBuffer filled = pending;
+				pending = flushing;
+				flushing = filled;
+				pendingRecords = 0;
+				batchEnd = lastRecord;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			IOException error = null;
+			int batchBytes = flushing.size();
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(flushing.array(), 0, flushing.size());
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+			} catch (IOException e) {
+				log.error("Ошибка записи журнала {}: {}.", path, e.getMessage());
+				error = e;
+			}
+			flushing.reset();
+
+			lock.lock();
+			try {
+				if (error != null) {
+					failure = error;
+				} else {
+					durableRecord = batchEnd;
+					durableBytes += batchBytes;
+				}
+				durableAdvanced.signalAll();
+				if (error != null) {
+					return;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void apply(byte[] record, InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage)
+			throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+		byte type = input.readByte();
+		switch (type) {
+			case FILM_SAVED -> filmStorage.restore(Film.builder()
+					.id(input.readLong())
+					.name(readString(input))
+					.description(readString(input))
+					.releaseDate(readString(input))
+					.duration(input.readInt())
+					.build());
+			case USER_SAVED -> userStorage.restore(User.builder()
+					.id(input.readLong())
+					.email(readString(input))
+					.login(readString(input))
+					.name(readString(input))
+					.birthday(readString(input))
+					.build());
+			case LIKE_ADDED, LIKE_DELETED ->
+					filmStorage.restoreLike(input.readLong(), input.readLong(), type == LIKE_ADDED);
+			case FRIEND_ADDED, FRIEND_DELETED ->
+					userStorage.restoreFriendship(input.readLong(), input.readLong(), type == FRIEND_ADDED);
+			default -> throw new IOException("Неизвестный тип записи журнала: " + type);
+		}
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		output.writeBoolean(value != null);
+		if (value != null) {
+			output.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		return input.readBoolean() ? input.readUTF() : null;
+	}
+
+	private interface RecordBody {
+		void write(DataOutputStream output) throws IOException;
+	}
+
+	// буфер с доступом к внутреннему массиву, чтобы не копировать записи при сбросе
+	private static class RecordBuffer extends ByteArrayOutputStream {
+		byte[] array() {
+			return buf;
+		}
+
+		void writeInt(int value) {
+			write(value >>> 24);
+			write(value >>> 16);
+			write(value >>> 8);
+			write(value);
+		}
+	}
+}
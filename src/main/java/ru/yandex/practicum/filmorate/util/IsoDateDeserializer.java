@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+// JSON-строка yyyy-MM-dd в номер дня (см. IsoDates). символы разбираются прямо из буфера парсера, без String.
+// ошибки формата не бросают исключений: пустая строка и null дают IsoDates.NONE, остальное неверное -
+// IsoDates.INVALID, и сообщение о неверной дате выдает валидатор, как и для дат из других источников
+public class IsoDateDeserializer extends StdDeserializer<Integer> {
+
+	public IsoDateDeserializer() {
+		super(Integer.class);
+	}
+
+	@Override
+	public Integer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		if (parser.hasToken(JsonToken.VALUE_STRING)) {
+			return IsoDates.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+		}
+		if (parser.currentToken().isScalarValue()) {
+			return IsoDates.INVALID;
+		}
+		return (Integer) context.handleUnexpectedToken(Integer.class, parser);
+	}
+
+	@Override
+	public Integer getNullValue(DeserializationContext context) {
+		return IsoDates.NONE;
+	}
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// номер дня (см. IsoDates) в JSON-строку yyyy-MM-dd, IsoDates.NONE - в null
+public class IsoDateSerializer extends StdSerializer<Integer> {
+
+	public IsoDateSerializer() {
+		super(Integer.class);
+	}
+
+	@Override
+	public void serialize(Integer day, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		if (day == IsoDates.NONE) {
+			generator.writeNull();
+			return;
+		}
+		char[] chars = new char[IsoDates.LENGTH];
+		IsoDates.format(day, chars);
+		generator.writeString(chars, 0, IsoDates.LENGTH);
+	}
+}
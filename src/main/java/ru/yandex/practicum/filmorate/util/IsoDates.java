@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// даты моделей хранятся числом int - номером дня от 0000-01-01 (номер дня LocalDate.toEpochDay, сдвинутый
+// на 719 528 дней): для любой даты с 0001 года он больше нуля, поэтому 0 - значение по умолчанию - означает,
+// что дата не указана. разбор и запись формата yyyy-MM-dd - за один проход по символам, без исключений
+// и без DateTimeFormatter
+public final class IsoDates {
+
+	// дата не указана (null или пустая строка)
+	public static final int NONE = 0;
+	// строка не в формате yyyy-MM-dd
+	public static final int INVALID = -1;
+	// длина yyyy-MM-dd
+	public static final int LENGTH = 10;
+
+	private static final int DAYS_0000_TO_1970 = 719_528;
+	private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+	// текущий день по часовому поясу системы пересчитывается один раз в сутки
+	private static volatile int today;
+	private static volatile long todayEndsAtMillis;
+
+	private IsoDates() {
+	}
+
+	public static int parse(String text) {
+		return text == null ? NONE : parse(text.toCharArray(), 0, text.length());
+	}
+
+	// как DateTimeFormatter.ofPattern("yyyy-MM-dd") в режиме SMART: номер дня 29-31, которого нет в месяце,
+	// заменяется последним днем месяца, 32 и больше - ошибка. год - ровно четыре цифры, начиная с 0001
+	public static int parse(char[] chars, int offset, int length) {
+		if (isBlank(chars, offset, length)) {
+			return NONE;
+		}
+		if (length != LENGTH || chars[offset + 4] != '-' || chars[offset + 7] != '-') {
+			return INVALID;
+		}
+		int year = digits(chars, offset, 4);
+		int month = digits(chars, offset + 5, 2);
+		int day = digits(chars, offset + 8, 2);
+		if (year <= 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+			return INVALID;
+		}
+		return of(year, month, Math.min(day, lengthOfMonth(year, month)));
+	}
+
+	// null для NONE
+	public static String format(int day) {
+		if (day == NONE) {
+			return null;
+		}
+		char[] chars = new char[LENGTH];
+		format(day, chars);
+		return new String(chars);
+	}
+
+	// запись yyyy-MM-dd в первые LENGTH символов chars
+	public static void format(int day, char[] chars) {
+		// алгоритм перевода номера дня в год, месяц и день по годам, начинающимся с марта (как в LocalDate.ofEpochDay)
+		int shifted = day - DAYS_0000_TO_1970 + 719_468;
+		int era = shifted / 146_097;
+		int dayOfEra = shifted - era * 146_097;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int marchMonth = (5 * dayOfYear + 2) / 153;
+		int dayOfMonth = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+		int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+		int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		writeDigits(chars, 0, year, 4);
+		chars[4] = '-';
+		writeDigits(chars, 5, month, 2);
+		chars[7] = '-';
+		writeDigits(chars, 8, dayOfMonth, 2);
+	}
+
+	public static int of(LocalDate date) {
+		return (int) (date.toEpochDay() + DAYS_0000_TO_1970);
+	}
+
+	public static LocalDate toLocalDate(int day) {
+		return LocalDate.ofEpochDay(day - DAYS_0000_TO_1970);
+	}
+
+	public static int today() {
+		if (System.currentTimeMillis() >= todayEndsAtMillis) {
+			refreshToday();
+		}
+		return today;
+	}
+
+	// как LocalDate.toEpochDay, но от 0000-01-01, для года от 1
+	static int of(int year, int month, int day) {
+		int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+		total += (367 * month - 362) / 12 + day - 1;
+		if (month > 2) {
+			total -= isLeap(year) ? 1 : 2;
+		}
+		return total;
+	}
+
+	private static boolean isBlank(char[] chars, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (!Character.isWhitespace(chars[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// число из count цифр начиная с from или -1, если встретился другой символ
+	private static int digits(char[] chars, int from, int count) {
+		int value = 0;
+		for (int i = from; i < from + count; i++) {
+			char c = chars[i];
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private static void writeDigits(char[] chars, int from, int value, int count) {
+		for (int i = from + count - 1; i >= from; i--) {
+			chars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		return month == 2 && isLeap(year) ? 29 : DAYS_IN_MONTH[month - 1];
+	}
+
+	private static boolean isLeap(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	// сначала пишется день, затем граница: поток, увидевший новую границу, увидит и новый день
+	private static synchronized void refreshToday() {
+		if (System.currentTimeMillis() < todayEndsAtMillis) {
+			return;
+		}
+		ZoneId zone = ZoneId.systemDefault();
+		LocalDate date = LocalDate.now(zone);
+		today = of(date);
+		todayEndsAtMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+	}
+}
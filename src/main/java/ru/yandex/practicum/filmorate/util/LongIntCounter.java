@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.util;
+
+// счетчики по ключу long в открытой адресации: без упаковки ключей и значений и без объекта на запись.
+// ключи - положительные id, 0 означает пустую ячейку. не потокобезопасен
+public class LongIntCounter {
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private int[] counts;
+	private int mask;
+	private int size;
+
+	public LongIntCounter(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+		keys = new long[capacity];
+		counts = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	public void increment(long key) {
+		add(key, 1);
+	}
+
+	public void add(long key, int delta) {
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				counts[slot] += delta;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		counts[slot] = delta;
+		if (++size > keys.length * LOAD_FACTOR) {
+			grow();
+		}
+	}
+
+	public int get(long key) {
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				return counts[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return 0;
+	}
+
+	// обнуление счетчика без удаления ячейки (удаление из открытой адресации разорвало бы цепочки проб)
+	public void reset(long key) {
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				counts[slot] = 0;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	public void addAll(LongIntCounter other) {
+		for (int i = 0; i < other.keys.length; i++) {
+			if (other.keys[i] != 0) {
+				add(other.keys[i], other.counts[i]);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// обход ячеек: 0 <= slot < capacity(), пустые ячейки имеют ключ 0
+	public int capacity() {
+		return keys.length;
+	}
+
+	public long keyAt(int slot) {
+		return keys[slot];
+	}
+
+	public int countAt(int slot) {
+		return counts[slot];
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[oldKeys.length * 2];
+		counts = new int[oldCounts.length * 2];
+		mask = keys.length - 1;
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				add(oldKeys[i], oldCounts[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+// пересечение отсортированных массивов long без повторов;
+// при сильной разнице размеров используется галопирующий поиск по большему массиву, иначе - слияние
+public final class SortedArrayIntersection {
+
+	// во сколько раз больший массив должен превосходить меньший, чтобы галопирование было выгоднее слияния
+	private static final int GALLOP_RATIO = 16;
+
+	private SortedArrayIntersection() {
+	}
+
+	public static int count(long[] first, int firstSize, long[] second, int secondSize) {
+		return intersect(first, firstSize, second, secondSize, null);
+	}
+
+	public static long[] intersect(long[] first, int firstSize, long[] second, int secondSize) {
+		long[] buffer = new long[Math.min(firstSize, secondSize)];
+		int count = intersect(first, firstSize, second, secondSize, buffer);
+		return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+	}
+
+	// записывает общие элементы в output (если он не null) и возвращает их количество
+	private static int intersect(long[] first, int firstSize, long[] second, int secondSize, long[] output) {
+		if (firstSize > secondSize) {
+			return intersect(second, secondSize, first, firstSize, output);
+		}
+		if (firstSize == 0) {
+			return 0;
+		}
+		if (secondSize / firstSize >= GALLOP_RATIO) {
+			return gallop(first, firstSize, second, secondSize, output);
+		}
+		return merge(first, firstSize, second, secondSize, output);
+	}
+
+	private static int merge(long[] small, int smallSize, long[] large, int largeSize, long[] output) {
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < smallSize && j < largeSize) {
+			long a = small[i];
+			long b = large[j];
+			if (a < b) {
+				i++;
+			} else if (a > b) {
+				j++;
+			} else {
+				if (output != null) {
+					output[count] = a;
+				}
+				count++;
+				i++;
+				j++;
+			}
+		}
+		return count;
+	}
+
+	private static int gallop(long[] small, int smallSize, long[] large, int largeSize, long[] output) {
+		int count = 0;
+		int low = 0;
+		for (int i = 0; i < smallSize && low < largeSize; i++) {
+			long value = small[i];
+			// экспоненциально расширяем окно, пока его правая граница меньше искомого значения
+			int step = 1;
+			int high = low;
+			while (high < largeSize && large[high] < value) {
+				low = high + 1;
+				high = low + step;
+				step <<= 1;
+			}
+			high = Math.min(high, largeSize - 1);
+			// бинарный поиск первого элемента >= value в окне [low, high]
+			int left = low;
+			int right = high;
+			while (left <= right) {
+				int middle = (left + right) >>> 1;
+				if (large[middle] < value) {
+					left = middle + 1;
+				} else {
+					right = middle - 1;
+				}
+			}
+			low = left;
+			if (low < largeSize && large[low] == value) {
+				if (output != null) {
+					output[count] = value;
+				}
+				count++;
+				low++;
+			}
+		}
+		return count;
+	}
+}
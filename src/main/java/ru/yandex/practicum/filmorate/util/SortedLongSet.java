@@ -0,0 +1,219 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+
+// компактное потокобезопасное множество id: хранит значения в отсортированном массиве long[]
+// без упаковки в Long (8 байт на элемент вместо ~50 у HashSet<Long>);
+// для Jackson и остального кода остается обычным Set<Long>
+public class SortedLongSet extends AbstractSet<Long> {
+
+	private static final long[] EMPTY = new long[0];
+	private static final int MIN_CAPACITY = 4;
+
+	private final StampedLock lock = new StampedLock();
+	private long[] values = EMPTY;
+	private int size;
+
+	// множество из уже отсортированного массива без повторов (например, прочитанного из снимка)
+	public static SortedLongSet ofSorted(long[] sortedValues) {
+		SortedLongSet set = new SortedLongSet();
+		set.values = sortedValues;
+		set.size = sortedValues.length;
+		return set;
+	}
+
+	public boolean add(long value) {
+		long stamp = lock.writeLock();
+		try {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				return false;
+			}
+			int insertAt = -index - 1;
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Math.max(MIN_CAPACITY, size + (size >> 1)));
+			}
+			System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+			values[insertAt] = value;
+			size++;
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	public boolean remove(long value) {
+		long stamp = lock.writeLock();
+		try {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index < 0) {
+				return false;
+			}
+			System.arraycopy(values, index + 1, values, index, size - index - 1);
+			size--;
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	public boolean contains(long value) {
+		// оптимистичное чтение без блокировки; при конкурентной записи повторяем под блокировкой чтения
+		long stamp = lock.tryOptimisticRead();
+		long[] currentValues = values;
+		int currentSize = Math.min(size, currentValues.length);
+		boolean found = Arrays.binarySearch(currentValues, 0, currentSize, value) >= 0;
+		if (lock.validate(stamp)) {
+			return found;
+		}
+		stamp = lock.readLock();
+		try {
+			return Arrays.binarySearch(values, 0, size, value) >= 0;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// снимок значений в порядке возрастания
+	public long[] toLongArray() {
+		long stamp = lock.readLock();
+		try {
+			return Arrays.copyOf(values, size);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// обход значений по возрастанию без упаковки и без копирования массива; запись ждет окончания обхода
+	public void forEachLong(LongConsumer action) {
+		long stamp = lock.readLock();
+		try {
+			for (int i = 0; i < size; i++) {
+				action.accept(values[i]);
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// обход значений из отрезка [from, to] по возрастанию: начало отрезка находится двоичным поиском
+	public void forEachInRange(long from, long to, LongConsumer action) {
+		long stamp = lock.readLock();
+		try {
+			int index = Arrays.binarySearch(values, 0, size, from);
+			for (int i = index >= 0 ? index : -index - 1; i < size && values[i] <= to; i++) {
+				action.accept(values[i]);
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// общие элементы двух множеств в порядке возрастания
+	public long[] intersect(SortedLongSet other) {
+		long stamp = lock.tryOptimisticRead();
+		long otherStamp = other.lock.tryOptimisticRead();
+		long[] currentValues = values;
+		long[] otherValues = other.values;
+		long[] common = SortedArrayIntersection.intersect(currentValues, Math.min(size, currentValues.length),
+				otherValues, Math.min(other.size, otherValues.length));
+		if (lock.validate(stamp) && other.lock.validate(otherStamp)) {
+			return common;
+		}
+		long[] snapshot = toLongArray();
+		long[] otherSnapshot = other.toLongArray();
+		return SortedArrayIntersection.intersect(snapshot, snapshot.length, otherSnapshot, otherSnapshot.length);
+	}
+
+	// количество общих элементов; без конкурентной записи не выделяет память
+	public int countCommon(SortedLongSet other) {
+		long stamp = lock.tryOptimisticRead();
+		long otherStamp = other.lock.tryOptimisticRead();
+		long[] currentValues = values;
+		long[] otherValues = other.values;
+		int count = SortedArrayIntersection.count(currentValues, Math.min(size, currentValues.length),
+				otherValues, Math.min(other.size, otherValues.length));
+		if (lock.validate(stamp) && other.lock.validate(otherStamp)) {
+			return count;
+		}
+		long[] snapshot = toLongArray();
+		long[] otherSnapshot = other.toLongArray();
+		return SortedArrayIntersection.count(snapshot, snapshot.length, otherSnapshot, otherSnapshot.length);
+	}
+
+	@Override
+	public boolean add(Long value) {
+		return add(value.longValue());
+	}
+
+	@Override
+	public boolean remove(Object value) {
+		return value instanceof Long && remove(((Long) value).longValue());
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return value instanceof Long && contains(((Long) value).longValue());
+	}
+
+	@Override
+	public int size() {
+		long stamp = lock.tryOptimisticRead();
+		int currentSize = size;
+		if (lock.validate(stamp)) {
+			return currentSize;
+		}
+		stamp = lock.readLock();
+		try {
+			return size;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	@Override
+	public void clear() {
+		long stamp = lock.writeLock();
+		try {
+			values = EMPTY;
+			size = 0;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	// итерация идет по снимку, поэтому не ломается при конкурентных изменениях
+	@Override
+	public Iterator<Long> iterator() {
+		long[] snapshot = toLongArray();
+		return new Iterator<>() {
+			private int position;
+
+			@Override
+			public boolean hasNext() {
+				return position < snapshot.length;
+			}
+
+			@Override
+			public Long next() {
+				if (position >= snapshot.length) {
+					throw new NoSuchElementException();
+				}
+				return snapshot[position++];
+			}
+
+			@Override
+			public void remove() {
+				if (position == 0) {
+					throw new IllegalStateException();
+				}
+				SortedLongSet.this.remove(snapshot[position - 1]);
+			}
+		};
+	}
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.util;
+
+// первые k id по убыванию счета (при равенстве - по возрастанию id) без хранения остальных:
+// куча размера k на примитивных массивах, в корне - худший из отобранных. не потокобезопасен
+public class TopK {
+
+	private final long[] ids;
+	private final int[] scores;
+	private int size;
+
+	public TopK(int k) {
+		ids = new long[k];
+		scores = new int[k];
+	}
+
+	public void offer(long id, int score) {
+		if (ids.length == 0) {
+			return;
+		}
+		if (size < ids.length) {
+			ids[size] = id;
+			scores[size] = score;
+			siftUp(size++);
+		} else if (worse(ids[0], scores[0], id, score)) {
+			ids[0] = id;
+			scores[0] = score;
+			siftDown(0);
+		}
+	}
+
+	// нулевые счетчики пропускаются
+	public void offerAll(LongIntCounter counter) {
+		for (int slot = 0; slot < counter.capacity(); slot++) {
+			long id = counter.keyAt(slot);
+			if (id != 0 && counter.countAt(slot) > 0) {
+				offer(id, counter.countAt(slot));
+			}
+		}
+	}
+
+	// отобранные id от лучшего к худшему; куча при этом разбирается
+	public long[] drainDescending() {
+		long[] result = new long[size];
+		for (int i = size - 1; i >= 0; i--) {
+			result[i] = ids[0];
+			size--;
+			ids[0] = ids[size];
+			scores[0] = scores[size];
+			siftDown(0);
+		}
+		return result;
+	}
+
+	// первый хуже второго: меньше счет или при равном счете больше id
+	private static boolean worse(long id, int score, long otherId, int otherScore) {
+		return score != otherScore ? score < otherScore : id > otherId;
+	}
+
+	private void siftUp(int index) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!worse(ids[index], scores[index], ids[parent], scores[parent])) {
+				return;
+			}
+			swap(index, parent);
+			index = parent;
+		}
+	}
+
+	private void siftDown(int index) {
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= size) {
+				return;
+			}
+			if (child + 1 < size && worse(ids[child + 1], scores[child + 1], ids[child], scores[child])) {
+				child++;
+			}
+			if (!worse(ids[child], scores[child], ids[index], scores[index])) {
+				return;
+			}
+			swap(index, child);
+			index = child;
+		}
+	}
+
+	private void swap(int first, int second) {
+		long id = ids[first];
+		ids[first] = ids[second];
+		ids[second] = id;
+		int score = scores[first];
+		scores[first] = scores[second];
+		scores[second] = score;
+	}
+}
@@ -5,29 +5,27 @@ import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.IsoDates;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 public class FilmValidator {
 
-	private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-	private final LocalDate filmStartDate = LocalDate.parse("1895-12-28", formatter);
+	private static final int FILM_START_DAY = IsoDates.of(LocalDate.of(1895, 12, 28));
 	private static final int MAX_DESCRIPTION = 200;
 
-	public void validate(Film film, Map<Long, Film> films) {
+	// проверки без создания объектов для верных данных: дата уже разобрана в номер дня при чтении JSON,
+	// исключения с сообщениями создаются только при ошибке.
+	// filmId - id проверяемого фильма (null при создании), filmIdByName - поиск id фильма по названию в хранилище
+	public void validate(Film film, Long filmId, Function<String, Long> filmIdByName) {
 		if (film.getName() == null || film.getName().isBlank()) {
 			log.error("Пустое поле name.");
 			throw new ConditionsNotMetException("Название фильма должно быть указано.");
 		}
 
-		if (films.containsValue(film)) {
-			log.error("Конфликт одинаковых фильмов.");
-			throw new DuplicatedDataException("Этот фильм уже находится в базе.");
-		}
+		checkUnique(film, filmId, filmIdByName);
 
 		if (film.getDescription() == null || film.getDescription().isBlank()) {
 			log.error("Описание отсутствует.");
@@ -37,17 +35,16 @@ public class FilmValidator {
 			throw new ConditionsNotMetException("Описание фильма превышает 200 символов.");
 		}
 
-		try {
-			if (film.getReleaseDate() == null || film.getReleaseDate().isBlank()) {
-				log.error("Дата релиза фильма отсутствует.");
-				throw new NotFoundException("Укажите дату релиза фильма.");
-			} else if (LocalDate.parse(film.getReleaseDate(), formatter).isBefore(filmStartDate)) {
-				log.error("Указанная дата релиза фильма неверна.");
-				throw new ConditionsNotMetException("Укажите верную дату релиза фильма.");
-			}
-		} catch (DateTimeParseException e) {
+		int releaseDay = film.getReleaseDate();
+		if (releaseDay == IsoDates.NONE) {
+			log.error("Дата релиза фильма отсутствует.");
+			throw new NotFoundException("Укажите дату релиза фильма.");
+		} else if (releaseDay == IsoDates.INVALID) {
 			log.error("Указан неверный формат даты релиза фильма.");
 			throw new ConditionsNotMetException("Укажите дату релиза фильма в верном формате.");
+		} else if (releaseDay < FILM_START_DAY) {
+			log.error("Указанная дата релиза фильма неверна.");
+			throw new ConditionsNotMetException("Укажите верную дату релиза фильма.");
 		}
 
 		if (film.getDuration() <= 0) {
@@ -55,5 +52,14 @@ public class FilmValidator {
 			throw new ConditionsNotMetException("Продолжительность фильма должна быть указана верно.");
 		}
 	}
-}
 
+	// проверка уникальности названия отдельно от остальных полей: при пакетной загрузке поля
+	// проверяются параллельно заранее, а уникальность - при сохранении под блокировкой хранилища
+	public void checkUnique(Film film, Long filmId, Function<String, Long> filmIdByName) {
+		Long ownerId = filmIdByName.apply(film.getName());
+		if (ownerId != null && !ownerId.equals(filmId)) {
+			log.error("Конфликт одинаковых фильмов.");
+			throw new DuplicatedDataException("Этот фильм уже находится в базе.");
+		}
+	}
+}
@@ -5,50 +5,52 @@ import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.IsoDates;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Arrays;
-import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 public class UserValidator {
-	private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-	public void validate(User user, Map<Long, User> users) {
+	// проверки без создания объектов для верных данных (см. FilmValidator).
+	// userId - id проверяемого пользователя (null при создании), userIdByEmail - поиск id пользователя по имейлу
+	public void validate(User user, Long userId, Function<String, Long> userIdByEmail) {
 		if (user.getEmail() == null || user.getEmail().isBlank()) {
 			log.error("Пустое поле email.");
 			throw new NotFoundException("Имейл должен быть указан.");
-		} else if (!Arrays.asList(user.getEmail().split("")).contains("@")) {
+		} else if (user.getEmail().indexOf('@') < 0) {
 			log.error("Отсутствует '@'.");
 			throw new ConditionsNotMetException("Имейл указан некорректно. Отсутствует '@'.");
 		}
 
-		if (users.containsValue(user)) {
-			log.error("Конфликт одинаковых имейлов.");
-			throw new DuplicatedDataException("Этот имейл уже используется.");
-		}
+		checkUnique(user, userId, userIdByEmail);
 
 		if (user.getLogin() == null || user.getLogin().isBlank()) {
 			log.error("Пустое поле login.");
 			throw new NotFoundException("Логин должен быть указан.");
-		} else if (user.getLogin().contains(" ")) {
+		} else if (user.getLogin().indexOf(' ') >= 0) {
 			log.error("Присутствуют пробелы в поле login.");
 			throw new ConditionsNotMetException("Логин указан некорректно. Присутствуют пробелы.");
 		}
 
-		try {
-			if (user.getBirthday() == null || user.getBirthday().isBlank()) {
-				log.error("Не указана дата дня рождения.");
-				throw new NotFoundException("Укажите дату рождения.");
-			} else if (LocalDate.parse(user.getBirthday(), formatter).isAfter(LocalDate.now())) {
-				log.error("Неверно указана дата дня рождения.");
-				throw new ConditionsNotMetException("Укажите верную дату рождения.");
-			}
-		} catch (DateTimeParseException e) {
+		int birthday = user.getBirthday();
+		if (birthday == IsoDates.NONE) {
+			log.error("Не указана дата дня рождения.");
+			throw new NotFoundException("Укажите дату рождения.");
+		} else if (birthday == IsoDates.INVALID) {
 			log.error("Дата рождения указана в неверном формате.");
 			throw new NotFoundException("Укажите дату рождения в верном формате.");
+		} else if (birthday > IsoDates.today()) {
+			log.error("Неверно указана дата дня рождения.");
+			throw new ConditionsNotMetException("Укажите верную дату рождения.");
+		}
+	}
+
+	// проверка уникальности имейла отдельно от остальных полей (см. FilmValidator.checkUnique)
+	public void checkUnique(User user, Long userId, Function<String, Long> userIdByEmail) {
+		Long ownerId = userIdByEmail.apply(user.getEmail());
+		if (ownerId != null && !ownerId.equals(userId)) {
+			log.error("Конфликт одинаковых имейлов.");
+			throw new DuplicatedDataException("Этот имейл уже используется.");
 		}
 	}
 }
@@ -0,0 +1,46 @@
+CREATE TABLE IF NOT EXISTS films (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	name VARCHAR(255) NOT NULL,
+	description VARCHAR(200),
+	release_date DATE,
+	duration INT NOT NULL,
+	-- растет при каждом изменении фильма и его лайков
+	version BIGINT DEFAULT 1 NOT NULL,
+	CONSTRAINT films_name_unique UNIQUE (name)
+);
+
+-- выборка фильмов по диапазонам даты релиза и продолжительности
+CREATE INDEX IF NOT EXISTS films_release_date_idx ON films (release_date);
+CREATE INDEX IF NOT EXISTS films_duration_idx ON films (duration);
+
+CREATE TABLE IF NOT EXISTS users (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	email VARCHAR(255) NOT NULL,
+	login VARCHAR(255) NOT NULL,
+	name VARCHAR(255),
+	birthday DATE,
+	-- растет при каждом изменении пользователя и его друзей
+	version BIGINT DEFAULT 1 NOT NULL,
+	CONSTRAINT users_email_unique UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS likes (
+	film_id BIGINT NOT NULL REFERENCES films (id) ON DELETE CASCADE,
+	user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+	-- время лайка для рейтинга за последнее время; NULL - загружен пакетом и в рейтинг не попадает
+	created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+	PRIMARY KEY (film_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS likes_film_id_idx ON likes (film_id);
+CREATE INDEX IF NOT EXISTS likes_user_id_idx ON likes (user_id);
+CREATE INDEX IF NOT EXISTS likes_created_at_idx ON likes (created_at);
+
+-- дружба взаимная: хранятся обе строки (user_id, friend_id) и (friend_id, user_id)
+CREATE TABLE IF NOT EXISTS friendships (
+	user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+	friend_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+	PRIMARY KEY (user_id, friend_id)
+);
+
+CREATE INDEX IF NOT EXISTS friendships_user_id_idx ON friendships (user_id);
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// без этой аннотации тесты Spring Boot заменяют реестр Prometheus простым реестром в памяти
+@AutoConfigureObservability(tracing = false)
+class MetricsTests {
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private FilmService filmService;
+
+	@Test
+	void shouldExposeServiceTimersStorageGaugesAndErrorCounters() throws Exception {
+		filmService.create(Film.builder()
+				.name("metrics film")
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build());
+		mockMvc.perform(get("/films/999999")).andExpect(status().isNotFound());
+
+		Assertions.assertEquals(1, meterRegistry.get("filmorate.service")
+				.tag("class", FilmService.class.getSimpleName())
+				.tag("method", "create")
+				.timer()
+				.count());
+		Assertions.assertEquals(1, meterRegistry.get("filmorate.errors")
+				.tag("exception", "NotFoundException")
+				.counter()
+				.count());
+		Assertions.assertTrue(meterRegistry.get("filmorate.storage.films").gauge().value() >= 1);
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		Assertions.assertTrue(scrape.contains("filmorate_service_seconds_bucket"));
+		Assertions.assertTrue(scrape.contains("filmorate_storage_likes"));
+		Assertions.assertTrue(scrape.contains("filmorate_errors_total"));
+	}
+
+	@Test
+	void shouldAnswerBadRequestForMalformedParameters() throws Exception {
+		String body = mockMvc.perform(get("/films").param("minDuration", "abc"))
+				.andExpect(status().isBadRequest())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		Assertions.assertTrue(body.contains("minDuration"));
+		mockMvc.perform(get("/films/popular").param("count", "abc")).andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.ExecutionException;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadModeTests {
+	@Autowired
+	@Qualifier("applicationTaskExecutor")
+	private AsyncTaskExecutor applicationTaskExecutor;
+
+	@Test
+	void shouldRunBackgroundTasksOnVirtualThreads() throws ExecutionException, InterruptedException {
+		Assertions.assertTrue(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get());
+	}
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.cachetests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.cache.ResponseCacheFilter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResponseCacheTest {
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+	private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+	private final FilmService filmService = new FilmService(filmStorage, userStorage);
+	private final ResponseCache responseCache = new ResponseCache(1 << 20, Duration.ofMinutes(10));
+	private final ResponseCacheFilter filter = new ResponseCacheFilter(responseCache);
+	// число запросов, дошедших до "контроллера"
+	private final AtomicInteger served = new AtomicInteger();
+	private final FilterChain controller = (request, response) -> {
+		served.incrementAndGet();
+		String uri = ((MockHttpServletRequest) request).getRequestURI();
+		Object body;
+		if (uri.equals("/films/popular")) {
+			body = filmService.getMostLiked(Integer.parseInt(request.getParameter("count")));
+			// то же, что PopularFilmsAdvice делает перед сериализацией ответа
+			request.setAttribute(ResponseCacheFilter.POPULAR_FILMS_ATTRIBUTE, body);
+		} else {
+			body = filmService.findFilmById(Long.parseLong(uri.substring("/films/".length()))).orElseThrow();
+		}
+		response.setContentType("application/json");
+		response.getOutputStream().write(objectMapper.writeValueAsBytes(body));
+	};
+
+	@BeforeEach
+	void setUp() {
+		filmService.setChangeListener(responseCache);
+		for (int i = 1; i <= 3; i++) {
+			filmService.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(100)
+					.build());
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+	}
+
+	@Test
+	void shouldServeRepeatedRequestFromCacheUntilLikeChanges() throws ServletException, IOException {
+		MockHttpServletResponse first = get("/films/1", null);
+		MockHttpServletResponse second = get("/films/1", null);
+
+		Assertions.assertEquals(1, served.get());
+		Assertions.assertEquals("HIT", second.getHeader("X-Cache"));
+		Assertions.assertEquals(first.getContentAsString(), second.getContentAsString());
+
+		filmService.addLike(1L, 1L);
+		MockHttpServletResponse afterLike = get("/films/1", null);
+
+		Assertions.assertEquals(2, served.get());
+		Assertions.assertEquals("MISS", afterLike.getHeader("X-Cache"));
+		Assertions.assertEquals(1, objectMapper.readValue(afterLike.getContentAsByteArray(), Film.class)
+				.getLikes().size());
+		Assertions.assertEquals(1L, responseCache.stats().get("hits"));
+	}
+
+	@Test
+	void shouldInvalidatePopularOnlyWhenRankingCanChange() throws ServletException, IOException {
+		filmService.addLike(1L, 1L);
+		filmService.addLike(1L, 2L);
+		get("/films/popular", "1");
+
+		// у фильма 2 один лайк - он не может обогнать фильм 1 с двумя лайками
+		filmService.addLike(2L, 1L);
+		Assertions.assertEquals("HIT", get("/films/popular", "1").getHeader("X-Cache"));
+
+		filmService.addLike(2L, 2L);
+		filmService.addLike(2L, 3L);
+		MockHttpServletResponse changed = get("/films/popular", "1");
+
+		Assertions.assertEquals("MISS", changed.getHeader("X-Cache"));
+		Assertions.assertEquals(2L, objectMapper.readValue(changed.getContentAsByteArray(), Film[].class)[0].getId());
+	}
+
+	@Test
+	void shouldBypassCacheForRequestsNotAcceptingJson() throws ServletException, IOException {
+		get("/films/1", null);
+		Assertions.assertEquals("HIT", get("/films/1", null).getHeader("X-Cache"));
+
+		MockHttpServletResponse ndjson = get("/films/1", null, "application/x-ndjson");
+		Assertions.assertNull(ndjson.getHeader("X-Cache"));
+		Assertions.assertEquals(2, served.get());
+		Assertions.assertEquals("HIT", get("/films/1", null, "application/x-ndjson, */*;q=0.1").getHeader("X-Cache"));
+	}
+
+	private MockHttpServletResponse get(String uri, String count) throws ServletException, IOException {
+		return get(uri, count, null);
+	}
+
+	private MockHttpServletResponse get(String uri, String count, String accept) throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		if (accept != null) {
+			request.addHeader("Accept", accept);
+		}
+		if (count != null) {
+			request.setParameter("count", count);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, controller);
+		return response;
+	}
+}
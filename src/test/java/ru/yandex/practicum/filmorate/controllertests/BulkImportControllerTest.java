@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.controllertests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controller.BulkImportController;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+public class BulkImportControllerTest {
+	private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+	private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+	private final BulkImportController bulkImportController = new BulkImportController(
+			new BulkImportService(filmStorage, userStorage, new ObjectMapper().findAndRegisterModules(),
+					Executors.newVirtualThreadPerTaskExecutor()));
+	private final FilmController filmController = new FilmController(new FilmService(filmStorage, userStorage),
+			new NdjsonWriter(new ObjectMapper()));
+
+	@Test
+	void shouldImportJsonArrayWithPerRecordReport() throws IOException {
+		ImportReport report = bulkImportController.importUsers(body(
+				"[",
+				"{\"email\": \"email@1\", \"login\": \"login1\", \"birthday\": \"2010-10-10\"},",
+				"{\"email\": \"email1\", \"login\": \"login2\", \"birthday\": \"2010-10-10\"},",
+				"{\"email\": \"email@1\", \"login\": \"login3\", \"birthday\": \"2010-10-10\"},",
+				"{\"email\": \"email@2\", \"login\": \"login4\", \"birthday\": \"2010-10-10\"}",
+				"]"));
+
+		Assertions.assertEquals(2, report.getImported());
+		Assertions.assertEquals(2, report.getFailed());
+		Assertions.assertEquals(1L, report.getResults().get(0).getId());
+		Assertions.assertEquals("Имейл указан некорректно. Отсутствует '@'.", report.getResults().get(1).getError());
+		Assertions.assertEquals("Этот имейл уже используется.", report.getResults().get(2).getError());
+		Assertions.assertEquals(3, report.getResults().get(3).getIndex());
+		Assertions.assertEquals("login1", userStorage.findUserById(1L).orElseThrow().getName());
+	}
+
+	@Test
+	void shouldImportNdjsonLikesAndFriendships() throws IOException {
+		bulkImportController.importUsers(body(
+				"{\"email\": \"email@1\", \"login\": \"login1\", \"birthday\": \"2010-10-10\"}",
+				"{\"email\": \"email@2\", \"login\": \"login2\", \"birthday\": \"2010-10-10\"}"));
+		bulkImportController.importFilms(body(film("film1"), film("film2")));
+
+		ImportReport likes = bulkImportController.importLikes(body(
+				"{\"filmId\": 2, \"userId\": 1}",
+				"{\"filmId\": 2, \"userId\": 2}",
+				"{\"filmId\": 3, \"userId\": 1}"));
+		ImportReport friendships = bulkImportController.importFriendships(body(
+				"{\"userId\": 1, \"friendId\": 2}",
+				"{\"userId\": 1, \"friendId\": 5}"));
+
+		Assertions.assertEquals(2, likes.getImported());
+		Assertions.assertEquals(1, likes.getFailed());
+		Assertions.assertEquals(2L, filmStorage.getMostLiked(1).get(0).getId());
+		Assertions.assertEquals(1, friendships.getImported());
+		Assertions.assertTrue(userStorage.findUserById(2L).orElseThrow().getFriends().contains(1L));
+	}
+
+	@Test
+	void shouldNotCountImportedLikesAsTrending() throws IOException {
+		bulkImportController.importUsers(body(
+				"{\"email\": \"email@1\", \"login\": \"login1\", \"birthday\": \"2010-10-10\"}",
+				"{\"email\": \"email@2\", \"login\": \"login2\", \"birthday\": \"2010-10-10\"}"));
+		bulkImportController.importFilms(body(film("film1"), film("film2")));
+		bulkImportController.importLikes(body(
+				"{\"filmId\": 2, \"userId\": 1}",
+				"{\"filmId\": 2, \"userId\": 2}"));
+
+		Assertions.assertEquals(2, filmStorage.getMostLiked(1).get(0).getLikes().size());
+		Assertions.assertTrue(filmController.getTrending("1h", 10).isEmpty());
+		Assertions.assertTrue(filmController.getTrending("7d", 10).isEmpty());
+
+		filmController.addLike(1L, 1L);
+		Assertions.assertEquals(List.of(1L), filmController.getTrending("1h", 10).stream().map(Film::getId).toList());
+	}
+
+	@Test
+	void shouldReportUnparsableTail() throws IOException {
+		ImportReport report = bulkImportController.importFilms(body(film("film1"), "{\"name\": \"film2\", \"description\""));
+
+		Assertions.assertEquals(1, report.getImported());
+		Assertions.assertEquals(1, report.getFailed());
+		Assertions.assertEquals(1, filmStorage.findAll().size());
+	}
+
+	@Test
+	void shouldImportLargeBatch() throws IOException {
+		int filmsCount = 100_000;
+		String[] lines = new String[filmsCount];
+		for (int i = 0; i < filmsCount; i++) {
+			lines[i] = film("film" + (i + 1));
+		}
+
+		ImportReport report = bulkImportController.importFilms(body(lines));
+
+		Assertions.assertEquals(filmsCount, report.getImported());
+		Assertions.assertEquals(filmsCount, filmStorage.findAll().size());
+	}
+
+	// записи по одной в строке; строки собираются из литералов, чтобы строка исходника не начиналась с '{'
+	private InputStream body(String... lines) {
+		return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String film(String name) {
+		return "{\"name\": \"" + name + "\", \"description\": \"description\", \"releaseDate\": \"2010-10-10\","
+				+ " \"duration\": 100}";
+	}
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.controllertests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConditionalGetTest {
+	private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+	private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+	private final FilmService filmService = new FilmService(filmStorage, userStorage);
+	private final UserService userService = new UserService(userStorage);
+	// число обращений к сериализатору JSON
+	private final AtomicInteger serialized = new AtomicInteger();
+	private final MockMvc mockMvc = MockMvcBuilders
+			.standaloneSetup(new FilmController(filmService, new NdjsonWriter(new ObjectMapper())),
+					new UserController(userService, new NdjsonWriter(new ObjectMapper())))
+			.setMessageConverters(new MappingJackson2HttpMessageConverter() {
+				@Override
+				protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+						throws IOException {
+					serialized.incrementAndGet();
+					super.writeInternal(object, type, outputMessage);
+				}
+			})
+			.build();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 1; i <= 3; i++) {
+			userService.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+			filmService.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(100)
+					.build());
+		}
+		userService.addFriend(1L, 2L);
+		filmService.addLike(1L, 1L);
+	}
+
+	@Test
+	void shouldAnswerNotModifiedWithoutSerializingPopularFilms() throws Exception {
+		String etag = mockMvc.perform(get("/films/popular"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		Assertions.assertEquals(1, serialized.get());
+
+		mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		Assertions.assertEquals(1, serialized.get());
+
+		filmService.addLike(2L, 1L);
+		String changed = mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		Assertions.assertNotEquals(etag, changed);
+		Assertions.assertEquals(2, serialized.get());
+	}
+
+	@Test
+	void shouldKeepVersionOutOfJson() throws Exception {
+		String body = mockMvc.perform(get("/films/popular"))
+				.andReturn().getResponse().getContentAsString();
+		Assertions.assertFalse(body.contains("version"));
+
+		// версия из запроса не принимается
+		Film film = new ObjectMapper().findAndRegisterModules()
+				.readValue("{\"name\": \"film\", \"version\": 100}", Film.class);
+		Assertions.assertEquals(0, film.getVersion());
+	}
+
+	@Test
+	void shouldChangeFriendsTagWhenFriendChanges() throws Exception {
+		String etag = mockMvc.perform(get("/users/1/friends"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/users/1/friends").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		// у друга сменилось имя: список друзей того же состава, но с другим содержимым
+		userService.update(User.builder()
+				.id(2L)
+				.email("email@2")
+				.login("login2")
+				.name("new name")
+				.birthday("2010-10-10")
+				.build());
+		mockMvc.perform(get("/users/1/friends").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+}
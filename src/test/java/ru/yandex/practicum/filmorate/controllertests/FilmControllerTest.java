@@ -1,22 +1,34 @@
 package ru.yandex.practicum.filmorate.controllertests;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.FilmRecommendationController;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
 @SpringBootTest
 public class FilmControllerTest {
 	private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
-	private final FilmService filmService = new FilmService(filmStorage, new InMemoryUserStorage());
-	private final FilmController filmController = new FilmController(filmService);
+	private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+	private final FilmService filmService = new FilmService(filmStorage, userStorage);
+	private final FilmController filmController = new FilmController(filmService, new NdjsonWriter(new ObjectMapper()));
 
 	@Test
 	void shouldReturnFilmCollection() {
@@ -28,7 +40,7 @@ public class FilmControllerTest {
 				.build();
 		filmController.create(film1);
 
-		Assertions.assertEquals(1, filmController.findAll().size());
+		Assertions.assertEquals(1, filmController.findAll(new FilmFilter()).size());
 	}
 
 	@Test
@@ -53,7 +65,7 @@ public class FilmControllerTest {
 				.build();
 
 		Assertions.assertThrows(ConditionsNotMetException.class,() -> filmController.create(film1));
-		Assertions.assertEquals(0, filmController.findAll().size());
+		Assertions.assertEquals(0, filmController.findAll(new FilmFilter()).size());
 	}
 
 	@Test
@@ -176,7 +188,7 @@ public class FilmControllerTest {
 
 		Assertions.assertDoesNotThrow(() -> filmController.update(film2));
 
-		Film filmFromController = (filmController.findAll()).iterator().next();
+		Film filmFromController = (filmController.findAll(new FilmFilter())).iterator().next();
 
 		Assertions.assertEquals(film2.getName(), filmFromController.getName());
 		Assertions.assertEquals(film1.getId(), filmFromController.getId());
@@ -191,6 +203,12 @@ public class FilmControllerTest {
 				.duration(210)
 				.build();
 		filmController.create(film1);
+		filmController.create(Film.builder()
+				.name("film5")
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(210)
+				.build());
 		Film film2 = Film.builder()
 				.name("film2")
 				.description("description")
@@ -199,7 +217,7 @@ public class FilmControllerTest {
 				.build();
 		Film film3 = Film.builder()
 				.id(1L)
-				.name("film1")
+				.name("film5")
 				.description("description")
 				.releaseDate("2010-10-10")
 				.duration(210)
@@ -217,4 +235,192 @@ public class FilmControllerTest {
 		Assertions.assertThrows(DuplicatedDataException.class,() -> filmController.update(film3));
 		Assertions.assertThrows(NotFoundException.class,() -> filmController.update(film4));
 	}
+
+	@Test
+	void shouldUpdateFilmKeepingItsName() {
+		filmController.create(Film.builder()
+				.name("film1")
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(210)
+				.build());
+		Film film2 = Film.builder()
+				.id(1L)
+				.name("film1")
+				.description("description2")
+				.releaseDate("2010-10-10")
+				.duration(220)
+				.build();
+
+		Assertions.assertDoesNotThrow(() -> filmController.update(film2));
+		Assertions.assertEquals(220, filmController.findAll(new FilmFilter()).iterator().next().getDuration());
+	}
+
+	@Test
+	void shouldReturnPopularFilms() {
+		for (int i = 1; i <= 3; i++) {
+			filmController.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(210)
+					.build());
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.name("name" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		filmController.addLike(2L, 1L);
+		filmController.addLike(2L, 2L);
+		filmController.addLike(3L, 1L);
+		filmController.addLike(3L, 2L);
+		filmController.addLike(3L, 3L);
+		filmController.addLike(1L, 1L);
+		filmController.deleteLike(1L, 1L);
+
+		List<Film> popular = filmController.getPopular(2).getBody();
+
+		Assertions.assertEquals(2, popular.size());
+		Assertions.assertEquals(3L, popular.get(0).getId());
+		Assertions.assertEquals(2L, popular.get(1).getId());
+		Assertions.assertEquals(1L, filmController.getPopular(10).getBody().get(2).getId());
+	}
+
+	@Test
+	void shouldRecommendFilmsLikedBySimilarUsers() {
+		FilmRecommendationController recommendationController = new FilmRecommendationController(filmService);
+		for (int i = 1; i <= 4; i++) {
+			filmController.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(210)
+					.build());
+		}
+		for (int i = 1; i <= 3; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		// у пользователя 2 с пользователем 1 два общих фильма, у пользователя 3 - один
+		filmController.addLike(1L, 1L);
+		filmController.addLike(2L, 1L);
+		filmController.addLike(1L, 2L);
+		filmController.addLike(2L, 2L);
+		filmController.addLike(3L, 2L);
+		filmController.addLike(1L, 3L);
+		filmController.addLike(4L, 3L);
+
+		Assertions.assertEquals(List.of(3L, 4L), recommendationController.getRecommended(1L, 10).stream()
+				.map(Film::getId)
+				.toList());
+
+		filmController.deleteLike(3L, 2L);
+
+		Assertions.assertEquals(List.of(4L), recommendationController.getRecommended(1L, 10).stream()
+				.map(Film::getId)
+				.toList());
+		Assertions.assertThrowsExactly(NotFoundException.class, () -> recommendationController.getRecommended(9L, 10));
+	}
+
+	@Test
+	void shouldReturnFilmsPageByCursor() {
+		for (int i = 1; i <= 5; i++) {
+			filmController.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(100)
+					.build());
+		}
+
+		List<Film> firstPage = filmController.findPage(0, 2);
+		List<Film> lastPage = filmController.findPage(firstPage.get(1).getId(), 10);
+
+		Assertions.assertEquals(List.of(1L, 2L), firstPage.stream().map(Film::getId).toList());
+		Assertions.assertEquals(List.of(3L, 4L, 5L), lastPage.stream().map(Film::getId).toList());
+		Assertions.assertTrue(filmController.findPage(5, 10).isEmpty());
+		Assertions.assertThrows(ConditionsNotMetException.class, () -> filmController.findPage(0, 0));
+	}
+
+	@Test
+	void shouldFilterFilmsByReleaseDateAndDuration() {
+		String[] releaseDates = {"1985-05-05", "1990-01-01", "1995-06-15", "2000-12-31", "2005-03-03"};
+		int[] durations = {90, 150, 100, 120, 80};
+		for (int i = 0; i < releaseDates.length; i++) {
+			filmController.create(Film.builder()
+					.name("film" + (i + 1))
+					.description("description")
+					.releaseDate(releaseDates[i])
+					.duration(durations[i])
+					.build());
+		}
+		FilmFilter filter = new FilmFilter();
+		filter.setReleasedFrom("1990-01-01");
+		filter.setReleasedTo("2000-12-31");
+		filter.setMaxDuration(120);
+		Assertions.assertEquals(List.of(3L, 4L), ids(filmController.findAll(filter)));
+
+		// границы включительные, незаданная граница не ограничивает выборку
+		filter.setReleasedTo(null);
+		filter.setMinDuration(100);
+		Assertions.assertEquals(List.of(3L, 4L), ids(filmController.findAll(filter)));
+
+		// измененный фильм переходит в другой диапазон
+		filmController.update(Film.builder()
+				.id(5L)
+				.name("film5")
+				.description("description")
+				.releaseDate("1999-01-01")
+				.duration(110)
+				.build());
+		Assertions.assertEquals(List.of(3L, 5L, 4L), ids(filmController.findAll(filter)));
+
+		filter.setReleasedFrom("1990/01/01");
+		Assertions.assertThrowsExactly(ConditionsNotMetException.class, () -> filmController.findAll(filter));
+		filter.setReleasedFrom("2001-01-01");
+		filter.setReleasedTo("2000-01-01");
+		Assertions.assertThrowsExactly(ConditionsNotMetException.class, () -> filmController.findAll(filter));
+	}
+
+	@Test
+	void shouldApplyFilterToNdjsonStream() throws IOException {
+		String[] releaseDates = {"1985-05-05", "1995-06-15", "2000-12-31"};
+		for (int i = 0; i < releaseDates.length; i++) {
+			filmController.create(Film.builder()
+					.name("film" + (i + 1))
+					.description("description")
+					.releaseDate(releaseDates[i])
+					.duration(100)
+					.build());
+		}
+		FilmFilter filter = new FilmFilter();
+		Assertions.assertEquals(3, stream(filter).length);
+
+		filter.setReleasedFrom("1990-01-01");
+		String[] lines = stream(filter);
+		Assertions.assertEquals(2, lines.length);
+		Assertions.assertTrue(lines[0].contains("\"name\":\"film2\""));
+		Assertions.assertTrue(lines[1].contains("\"name\":\"film3\""));
+
+		// неверные условия отклоняются до начала выгрузки
+		filter.setReleasedTo("1980-01-01");
+		Assertions.assertThrowsExactly(ConditionsNotMetException.class, () -> filmController.streamAll(filter));
+	}
+
+	private String[] stream(FilmFilter filter) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		filmController.streamAll(filter).writeTo(output);
+		return output.toString(StandardCharsets.UTF_8).split("\n");
+	}
+
+	private static List<Long> ids(Collection<Film> films) {
+		return films.stream()
+				.map(Film::getId)
+				.toList();
+	}
 }
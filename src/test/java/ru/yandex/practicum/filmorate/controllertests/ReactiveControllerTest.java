@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.controllertests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveControllerTest {
+	@Autowired
+	private WebTestClient webTestClient;
+	@Autowired
+	private ReactiveUserService userService;
+
+	@Test
+	void shouldServeFilmsAndFriendsThroughWebFlux() {
+		for (int i = 1; i <= 3; i++) {
+			webTestClient.post().uri("/users")
+					.bodyValue(User.builder()
+							.email("reactive@" + i)
+							.login("reactive" + i)
+							.birthday("2010-10-10")
+							.build())
+					.exchange()
+					.expectStatus().isOk();
+			webTestClient.post().uri("/films")
+					.bodyValue(Film.builder()
+							.name("reactive film" + i)
+							.description("description")
+							.releaseDate("2010-10-10")
+							.duration(100)
+							.build())
+					.exchange()
+					.expectStatus().isOk();
+		}
+		webTestClient.put().uri("/users/1/friends/2").exchange().expectStatus().isOk();
+		webTestClient.put().uri("/users/1/friends/3").exchange().expectStatus().isOk();
+
+		List<Film> films = webTestClient.get().uri("/films")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(Film.class)
+				.getResponseBody()
+				.collectList()
+				.block();
+		Assertions.assertEquals(3, films.size());
+
+		webTestClient.get().uri("/users/1/friends")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(User.class).hasSize(2);
+		webTestClient.get().uri("/films/99")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void shouldReadFriendsOnDemand() {
+		User user = userService.create(User.builder()
+				.email("demand@1")
+				.login("demand1")
+				.birthday("2010-10-10")
+				.build()).block();
+		User friend = userService.create(User.builder()
+				.email("demand@2")
+				.login("demand2")
+				.birthday("2010-10-10")
+				.build()).block();
+		userService.addFriend(user.getId(), friend.getId()).block();
+
+		// подписчик запрашивает одного друга и отменяет подписку
+		List<User> friends = userService.getUserFriends(user.getId()).take(1).collectList().block();
+
+		Assertions.assertEquals(List.of(friend.getId()), friends.stream().map(User::getId).toList());
+	}
+}
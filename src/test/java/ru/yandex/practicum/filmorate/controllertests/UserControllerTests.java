@@ -1,9 +1,11 @@
 package ru.yandex.practicum.filmorate.controllertests;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.controller.NdjsonWriter;
 import ru.yandex.practicum.filmorate.controller.UserController;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
@@ -12,13 +14,18 @@ import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
 @SpringBootTest
 @RequiredArgsConstructor
 public class UserControllerTests {
 	private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
-	private final UserController userController = new UserController(new UserService(userStorage));
+	private final UserController userController = new UserController(new UserService(userStorage),
+			new NdjsonWriter(new ObjectMapper()));
 
 	@Test
 	void shouldReturnUserCollection() {
@@ -178,6 +185,12 @@ public class UserControllerTests {
 				.birthday("2010-10-10")
 				.build();
 		userController.create(user1);
+		userController.create(User.builder()
+				.email("email@5")
+				.login("login5")
+				.name("name5")
+				.birthday("2010-10-10")
+				.build());
 		User user2 = User.builder()
 				.email("email@2")
 				.login("login2")
@@ -186,7 +199,7 @@ public class UserControllerTests {
 				.build();
 		User user3 = User.builder()
 				.id(1L)
-				.email("email@1")
+				.email("email@5")
 				.login("login2")
 				.name("name2")
 				.birthday("2010-10-10")
@@ -204,6 +217,26 @@ public class UserControllerTests {
 		Assertions.assertThrowsExactly(NotFoundException.class,() -> userController.update(user4));
 	}
 
+	@Test
+	void shouldUpdateUserKeepingItsEmail() {
+		userController.create(User.builder()
+				.email("email@1")
+				.login("login1")
+				.name("name1")
+				.birthday("2010-10-10")
+				.build());
+		User user2 = User.builder()
+				.id(1L)
+				.email("email@1")
+				.login("login2")
+				.name("name2")
+				.birthday("2010-10-10")
+				.build();
+
+		Assertions.assertDoesNotThrow(() -> userController.update(user2));
+		Assertions.assertEquals("login2", userController.findAll().iterator().next().getLogin());
+	}
+
 	@Test
 	void shouldReturnUserByID() {
 		User user1 = User.builder()
@@ -217,4 +250,71 @@ public class UserControllerTests {
 		Assertions.assertEquals(Optional.of(user1), userController.findUserById(1L));
 	}
 
+	@Test
+	void shouldReturnUserFriends() {
+		for (int i = 1; i <= 3; i++) {
+			userController.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.name("name" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		userController.addFriend(1L, 2L);
+		userController.addFriend(1L, 3L);
+		userController.addFriend(2L, 3L);
+
+		Assertions.assertEquals(2, userController.getUserFriends(1L).getBody().size());
+		Assertions.assertEquals(3L, userController.getCommonFriends(1L, 2L).get(0).getId());
+		Assertions.assertEquals(1, userController.countCommonFriends(1L, 2L));
+		Assertions.assertThrowsExactly(NotFoundException.class, () -> userController.getUserFriends(10L));
+	}
+
+	@Test
+	void shouldRecommendFriendsOfFriendsByMutualFriends() {
+		for (int i = 1; i <= 6; i++) {
+			userController.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		// у пользователя 1 друзья 2 и 3; пользователь 5 дружит с обоими, 4 и 6 - с одним
+		userController.addFriend(1L, 2L);
+		userController.addFriend(1L, 3L);
+		userController.addFriend(2L, 5L);
+		userController.addFriend(3L, 5L);
+		userController.addFriend(3L, 6L);
+		userController.addFriend(2L, 4L);
+
+		Assertions.assertEquals(List.of(5L, 4L, 6L), userController.getRecommendations(1L, 10).stream()
+				.map(User::getId)
+				.toList());
+		Assertions.assertEquals(List.of(5L), userController.getRecommendations(1L, 1).stream()
+				.map(User::getId)
+				.toList());
+		Assertions.assertThrowsExactly(ConditionsNotMetException.class, () -> userController.getRecommendations(1L, 0));
+	}
+
+	@Test
+	void shouldStreamAllUsersAsNdjson() throws IOException {
+		// больше одной страницы выгрузки
+		int usersCount = 2_500;
+		for (int i = 1; i <= usersCount; i++) {
+			userController.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.name("name" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		userController.streamAll().writeTo(output);
+		String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+
+		Assertions.assertEquals(usersCount, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("{") && lines[0].contains("\"email\":\"email@1\""));
+		Assertions.assertTrue(lines[usersCount - 1].contains("\"id\":" + usersCount));
+	}
 }
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.loadtests;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// нагрузочный стенд для сравнения потоков платформы и виртуальных потоков (не запускается вместе с тестами).
+// приложение запускается отдельно в нужном режиме, например:
+//   java -jar filmorate.jar --spring.profiles.active=jdbc --spring.threads.virtual.enabled=false
+//   java -jar filmorate.jar --spring.profiles.active=jdbc --spring.threads.virtual.enabled=true
+// затем стенд: LoadHarness [адрес] [соединений] [запросов на соединение] [путь]
+// каждое соединение - отдельный виртуальный поток клиента, который последовательно шлет запросы;
+// в конце печатаются пропускная способность и перцентили задержки. для 10k соединений нужен ulimit -n > 20000
+public class LoadHarness {
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		int requestsPerConnection = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		String path = args.length > 3 ? args[3] : "/films/popular?count=10";
+		URI uri = URI.create(baseUrl + path);
+
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(30))
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+		// прогрев: JIT и пул соединений сервера
+		for (int i = 0; i < 1_000; i++) {
+			client.send(request, HttpResponse.BodyHandlers.discarding());
+		}
+
+		AtomicInteger errors = new AtomicInteger();
+		List<Future<long[]>> results = new ArrayList<>(connections);
+		long start = System.nanoTime();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < connections; c++) {
+				results.add(executor.submit(() -> {
+					long[] latencies = new long[requestsPerConnection];
+					for (int i = 0; i < requestsPerConnection; i++) {
+						long sent = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() != 200) {
+								errors.incrementAndGet();
+							}
+						} catch (IOException e) {
+							errors.incrementAndGet();
+						}
+						latencies[i] = System.nanoTime() - sent;
+					}
+					return latencies;
+				}));
+			}
+		}
+		long elapsedNanos = System.nanoTime() - start;
+
+		long[] all = new long[connections * requestsPerConnection];
+		int position = 0;
+		for (Future<long[]> result : results) {
+			long[] latencies = result.get();
+			System.arraycopy(latencies, 0, all, position, latencies.length);
+			position += latencies.length;
+		}
+		Arrays.sort(all);
+
+		System.out.printf("%s: %d соединений, %d запросов, ошибок %d%n", uri, connections, all.length, errors.get());
+		System.out.printf("пропускная способность: %.0f запросов/с%n", all.length / (elapsedNanos / 1e9));
+		System.out.printf("задержка, мс: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+				percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 0.999),
+				all[all.length - 1] / 1e6);
+	}
+
+	private static double percentile(long[] sorted, double quantile) {
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+}
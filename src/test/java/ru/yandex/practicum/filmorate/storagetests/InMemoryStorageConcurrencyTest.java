@@ -0,0 +1,207 @@
+package ru.yandex.practicum.filmorate.storagetests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@SpringBootTest
+public class InMemoryStorageConcurrencyTest {
+	private static final int THREADS = 16;
+	private static final int USERS_PER_THREAD = 200;
+
+	private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+	private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void shouldCreateUsersWithUniqueIdsConcurrently() throws Exception {
+		runConcurrently(thread -> {
+			for (int i = 0; i < USERS_PER_THREAD; i++) {
+				userStorage.create(user(thread * USERS_PER_THREAD + i));
+			}
+		});
+
+		Set<Long> ids = new HashSet<>();
+		userStorage.findAll().forEach(user -> ids.add(user.getId()));
+		Assertions.assertEquals(THREADS * USERS_PER_THREAD, ids.size());
+	}
+
+	@Test
+	void shouldKeepFriendshipSymmetricWhileSerializing() throws Exception {
+		int usersCount = 100;
+		for (int i = 0; i < usersCount; i++) {
+			userStorage.create(user(i));
+		}
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		Future<?> serialization = reader.submit(() -> {
+			while (writing.get()) {
+				objectMapper.writeValueAsString(userStorage.findAll());
+			}
+			return null;
+		});
+
+		runConcurrently(thread -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = 0; i < 2_000; i++) {
+				long userId = random.nextLong(1, usersCount + 1);
+				long friendId = random.nextLong(1, usersCount + 1);
+				if (random.nextBoolean()) {
+					userStorage.addFriend(userId, friendId);
+				} else {
+					userStorage.deleteFriend(userId, friendId);
+				}
+			}
+		});
+		writing.set(false);
+		serialization.get();
+		reader.shutdown();
+
+		for (User user : userStorage.findAll()) {
+			for (Long friendId : user.getFriends()) {
+				Assertions.assertTrue(userStorage.findUserById(friendId).orElseThrow().getFriends().contains(user.getId()));
+			}
+		}
+	}
+
+	@Test
+	void shouldCountLikesAndRankFilmsConcurrently() throws Exception {
+		int filmsCount = 10;
+		for (int i = 1; i <= filmsCount; i++) {
+			filmStorage.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(100)
+					.build());
+		}
+
+		// фильм с id k получает лайки от k * THREADS разных пользователей
+		runConcurrently(thread -> {
+			for (long filmId = 1; filmId <= filmsCount; filmId++) {
+				for (long like = 0; like < filmId; like++) {
+					long userId = thread * 1_000L + like;
+					filmStorage.addLike(filmId, userId);
+					filmStorage.addLike(filmId, userId);
+				}
+			}
+		});
+
+		List<Film> popular = filmStorage.getMostLiked(filmsCount);
+		Assertions.assertEquals(filmsCount, popular.size());
+		for (int i = 0; i < filmsCount; i++) {
+			Film film = popular.get(i);
+			Assertions.assertEquals(filmsCount - i, film.getId());
+			Assertions.assertEquals(film.getId() * THREADS, film.getLikes().size());
+		}
+	}
+
+	@Test
+	void shouldReplaceFilmOnUpdateInsteadOfChangingIt() {
+		Film created = filmStorage.create(Film.builder()
+				.name("film1")
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build());
+		Film read = filmStorage.findFilmById(created.getId()).orElseThrow();
+
+		Film updated = filmStorage.update(Film.builder()
+				.id(created.getId())
+				.name("film1")
+				.description("description2")
+				.releaseDate("2010-10-10")
+				.duration(200)
+				.build());
+
+		Assertions.assertEquals("description", read.getDescription());
+		Assertions.assertEquals(100, read.getDuration());
+		Assertions.assertSame(updated, filmStorage.findFilmById(created.getId()).orElseThrow());
+		Assertions.assertEquals("film1", updated.getName());
+		Assertions.assertEquals(200, updated.getDuration());
+		Assertions.assertEquals(read.getVersion() + 1, updated.getVersion());
+	}
+
+	@Test
+	void shouldReturnEveryPopularFilmOnceWhileLikesMove() throws Exception {
+		int filmsCount = 20;
+		for (int i = 1; i <= filmsCount; i++) {
+			filmStorage.create(Film.builder()
+					.name("film" + i)
+					.description("description")
+					.releaseDate("2010-10-10")
+					.duration(100)
+					.build());
+		}
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		Future<?> reading = reader.submit(() -> {
+			while (writing.get()) {
+				Set<Long> ids = new HashSet<>();
+				filmStorage.getMostLiked(filmsCount).forEach(film -> ids.add(film.getId()));
+				Assertions.assertEquals(filmsCount, ids.size());
+			}
+			return null;
+		});
+
+		runConcurrently(thread -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = 0; i < 5_000; i++) {
+				long filmId = random.nextLong(1, filmsCount + 1);
+				long userId = random.nextLong(1, 50);
+				if (random.nextBoolean()) {
+					filmStorage.addLike(filmId, userId);
+				} else {
+					filmStorage.deleteLike(filmId, userId);
+				}
+			}
+		});
+		writing.set(false);
+		reading.get();
+		reader.shutdown();
+	}
+
+	private void runConcurrently(ThreadTask task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			int thread = i;
+			futures.add(executor.submit(() -> {
+				task.run(thread);
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+	}
+
+	private User user(int number) {
+		return User.builder()
+				.email("email@" + number)
+				.login("login" + number)
+				.name("name" + number)
+				.birthday("2010-10-10")
+				.build();
+	}
+
+	private interface ThreadTask {
+		void run(int thread) throws Exception;
+	}
+}
@@ -0,0 +1,253 @@
+package ru.yandex.practicum.filmorate.storagetests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.jdbc.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.jdbc.JdbcUserStorage;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:${random.uuid}")
+@ActiveProfiles("jdbc")
+// каждый тест получает новый контекст и свою базу H2 в памяти
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class JdbcStorageTest {
+	@Autowired
+	private FilmStorage filmStorage;
+	@Autowired
+	private UserStorage userStorage;
+
+	@Test
+	void shouldUseJdbcStoragesInProfile() {
+		Assertions.assertInstanceOf(JdbcFilmStorage.class, filmStorage);
+		Assertions.assertInstanceOf(JdbcUserStorage.class, userStorage);
+	}
+
+	@Test
+	void shouldCreateAndUpdateEntities() {
+		Film film = filmStorage.create(film("film1"));
+		User user = userStorage.create(User.builder()
+				.email("email@1")
+				.login("login1")
+				.birthday("2010-10-10")
+				.build());
+
+		Assertions.assertEquals("login1", userStorage.findUserById(user.getId()).orElseThrow().getName());
+		Assertions.assertThrows(DuplicatedDataException.class, () -> filmStorage.create(film("film1")));
+
+		filmStorage.update(Film.builder()
+				.id(film.getId())
+				.name("film1")
+				.description("new description")
+				.releaseDate("2000-01-01")
+				.duration(90)
+				.build());
+		Film updated = filmStorage.findFilmById(film.getId()).orElseThrow();
+		Assertions.assertEquals("new description", updated.getDescription());
+		Assertions.assertEquals("2000-01-01", IsoDates.format(updated.getReleaseDate()));
+		Assertions.assertEquals(90, updated.getDuration());
+		Assertions.assertThrows(NotFoundException.class, () -> filmStorage.findFilmById(999L));
+	}
+
+	@Test
+	void shouldBatchConcurrentLikesAndFriendships() throws Exception {
+		int usersCount = 50;
+		for (int i = 1; i <= usersCount; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.name("name" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		for (int i = 1; i <= 3; i++) {
+			filmStorage.create(film("film" + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (long userId = 1; userId <= usersCount; userId++) {
+				long id = userId;
+				futures.add(executor.submit(() -> filmStorage.addLike(2L, id)));
+				if (id % 2 == 0) {
+					futures.add(executor.submit(() -> filmStorage.addLike(3L, id)));
+				}
+				if (id > 1) {
+					futures.add(executor.submit(() -> userStorage.addFriend(1L, id)));
+				}
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		filmStorage.deleteLike(2L, 1L);
+		userStorage.deleteFriend(2L, 1L);
+
+		List<Film> popular = filmStorage.getMostLiked(3);
+		Assertions.assertEquals(List.of(2L, 3L, 1L), popular.stream().map(Film::getId).toList());
+		Assertions.assertEquals(usersCount - 1, popular.get(0).getLikes().size());
+		Assertions.assertEquals(usersCount / 2, popular.get(1).getLikes().size());
+		Assertions.assertEquals(usersCount - 2, userStorage.findUserById(1L).orElseThrow().getFriends().size());
+		Assertions.assertTrue(userStorage.findUserById(3L).orElseThrow().getFriends().contains(1L));
+		Assertions.assertTrue(userStorage.findUserById(2L).orElseThrow().getFriends().isEmpty());
+	}
+
+	@Test
+	void shouldRecommendFilmsByCoLikes() {
+		for (int i = 1; i <= 3; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		for (int i = 1; i <= 4; i++) {
+			filmStorage.create(film("film" + i));
+		}
+		filmStorage.addLike(1L, 1L);
+		filmStorage.addLike(2L, 1L);
+		filmStorage.addLike(1L, 2L);
+		filmStorage.addLike(2L, 2L);
+		filmStorage.addLike(3L, 2L);
+		filmStorage.addLike(1L, 3L);
+		filmStorage.addLike(4L, 3L);
+
+		Assertions.assertEquals(List.of(3L, 4L), filmStorage.getRecommended(1L, 10).stream()
+				.map(Film::getId)
+				.toList());
+		Assertions.assertEquals(List.of(3L), filmStorage.getRecommended(1L, 1).stream()
+				.map(Film::getId)
+				.toList());
+		// все лайки поставлены только что и попадают в окно за последний час
+		Assertions.assertEquals(List.of(1L, 2L), filmStorage.getTrending(TrendingWindow.HOUR, 2).stream()
+				.map(Film::getId)
+				.toList());
+	}
+
+	@Test
+	void shouldSearchFilmsByWordsWithoutIndex() {
+		Film matrix = filmStorage.create(film("Матрица"));
+		Film reloaded = filmStorage.create(film("Матрица: Перезагрузка"));
+		filmStorage.create(film("Ёжик в тумане"));
+		User user = userStorage.create(User.builder()
+				.email("email@1")
+				.login("login1")
+				.birthday("2010-10-10")
+				.build());
+		filmStorage.addLike(reloaded.getId(), user.getId());
+
+		Assertions.assertEquals(List.of(reloaded.getId(), matrix.getId()), filmStorage.search("матр", 10).stream()
+				.map(Film::getId)
+				.toList());
+		Assertions.assertEquals(1, filmStorage.search("ежик туман", 10).size());
+		Assertions.assertEquals(List.of(), filmStorage.search("матрица ежик", 10));
+	}
+
+	@Test
+	void shouldFindFilmsByRangesWithLikes() {
+		Film old = filmStorage.create(film("old"));
+		old.setReleaseDate(IsoDates.parse("1980-01-01"));
+		filmStorage.update(old);
+		Film longFilm = filmStorage.create(film("long"));
+		longFilm.setDuration(200);
+		filmStorage.update(longFilm);
+		Film matching = filmStorage.create(film("matching"));
+		User user = userStorage.create(User.builder()
+				.email("email@1")
+				.login("login1")
+				.birthday("2010-10-10")
+				.build());
+		filmStorage.addLike(matching.getId(), user.getId());
+
+		List<Film> films = filmStorage.findByRange(IsoDates.parse("2000-01-01"), Integer.MAX_VALUE, 90, 120);
+		Assertions.assertEquals(List.of(matching.getId()), films.stream().map(Film::getId).toList());
+		Assertions.assertEquals(1, films.get(0).getLikes().size());
+		Assertions.assertEquals(List.of(old.getId(), longFilm.getId(), matching.getId()), filmStorage.findByRange(
+				Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE).stream()
+				.map(Film::getId)
+				.toList());
+	}
+
+	@Test
+	void shouldKeepImportedLikesOutOfTrending() {
+		Film film1 = filmStorage.create(film("film1"));
+		Film film2 = filmStorage.create(film("film2"));
+		User user1 = userStorage.create(user(1));
+		User user2 = userStorage.create(user(2));
+
+		filmStorage.addLikes(List.of(new Like(film2.getId(), user1.getId()), new Like(film2.getId(), user2.getId())));
+		filmStorage.addLike(film1.getId(), user1.getId());
+
+		Assertions.assertEquals(List.of(film2.getId(), film1.getId()), filmStorage.getMostLiked(2).stream()
+				.map(Film::getId)
+				.toList());
+		Assertions.assertEquals(List.of(film1.getId()), filmStorage.getTrending(TrendingWindow.WEEK, 2).stream()
+				.map(Film::getId)
+				.toList());
+	}
+
+	@Test
+	void shouldChangeVersionOnlyWhenLinksChange() {
+		Film film = filmStorage.create(film("film1"));
+		User user = userStorage.create(user(1));
+		User friend = userStorage.create(user(2));
+
+		filmStorage.addLike(film.getId(), user.getId());
+		long liked = version(film);
+		Assertions.assertEquals(film.getVersion() + 1, liked);
+		// повторный лайк и удаление отсутствующего ничего не меняют
+		filmStorage.addLike(film.getId(), user.getId());
+		filmStorage.deleteLike(film.getId(), friend.getId());
+		Assertions.assertEquals(liked, version(film));
+		// лайк несуществующего пользователя не записан, и версия в той же транзакции откатилась
+		Assertions.assertThrows(RuntimeException.class, () -> filmStorage.addLike(film.getId(), 100L));
+		Assertions.assertEquals(liked, version(film));
+
+		userStorage.addFriend(user.getId(), friend.getId());
+		long befriended = userStorage.findUserById(user.getId()).orElseThrow().getVersion();
+		userStorage.addFriend(user.getId(), friend.getId());
+		Assertions.assertEquals(befriended, userStorage.findUserById(user.getId()).orElseThrow().getVersion());
+		Assertions.assertEquals(befriended, userStorage.findUserById(friend.getId()).orElseThrow().getVersion());
+	}
+
+	private long version(Film film) {
+		return filmStorage.findFilmById(film.getId()).orElseThrow().getVersion();
+	}
+
+	private User user(int number) {
+		return User.builder()
+				.email("email@" + number)
+				.login("login" + number)
+				.birthday("2010-10-10")
+				.build();
+	}
+
+	private Film film(String name) {
+		return Film.builder()
+				.name(name)
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build();
+	}
+}
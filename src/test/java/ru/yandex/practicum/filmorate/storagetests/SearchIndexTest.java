@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storagetests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchIndexTest {
+	private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+
+	@Test
+	void shouldTokenizeCyrillicAndLatinText() {
+		Assertions.assertEquals(List.of("елки", "2", "new", "year"), SearchIndex.tokenize("Ёлки-2: New Year!"));
+		Assertions.assertEquals(List.of(), SearchIndex.tokenize(" ,.- "));
+	}
+
+	@Test
+	void shouldFindFilmsByAllWordsAndPrefixRankedByRelevanceAndLikes() {
+		Film matrix = filmStorage.create(film("Матрица", "Хакер Нео узнает правду о мире"));
+		Film reloaded = filmStorage.create(film("Матрица: перезагрузка", "Нео и Тринити спасают Зион"));
+		Film hackers = filmStorage.create(film("Hackers", "Фильм про хакера и матрицу вирусов"));
+
+		// совпадение в названии важнее совпадения в описании
+		Assertions.assertEquals(List.of(matrix.getId(), reloaded.getId(), hackers.getId()), ids("матр"));
+		Assertions.assertEquals(List.of(reloaded.getId()), ids("матрица перез"));
+		Assertions.assertEquals(List.of(hackers.getId()), ids("HACK"));
+		Assertions.assertEquals(List.of(), ids("матрица зеркало"));
+
+		// лайки поднимают фильм среди фильмов с одинаковым совпадением
+		filmStorage.addLike(reloaded.getId(), 1L);
+		filmStorage.addLike(reloaded.getId(), 2L);
+		Assertions.assertEquals(List.of(reloaded.getId(), matrix.getId()), ids("нео"));
+	}
+
+	@Test
+	void shouldReindexUpdatedFilm() {
+		Film film = filmStorage.create(film("Ёжик в тумане", "Мультфильм"));
+
+		Film described = film("Ёжик в тумане", "Мультфильм про лошадку");
+		described.setId(film.getId());
+		filmStorage.update(described);
+		Assertions.assertEquals(List.of(film.getId()), ids("ежик лошад"));
+
+		Film renamed = film("Ёжик", "Мультфильм");
+		renamed.setId(film.getId());
+		filmStorage.update(renamed);
+		Assertions.assertEquals(List.of(), ids("туман"));
+		Assertions.assertEquals(List.of(), ids("лошадку"));
+		Assertions.assertEquals(List.of(film.getId()), ids("ёжик"));
+	}
+
+	@Test
+	void shouldBuildLargeIndexAndAnswerQueries() {
+		String[] words = {"приключения", "космос", "любовь", "война", "detective", "comedy", "город", "море"};
+		int filmsCount = 100_000;
+		List<Film> films = new ArrayList<>(filmsCount);
+		for (int i = 1; i <= filmsCount; i++) {
+			films.add(film("film" + i + " " + words[i % words.length],
+					words[i * 7 % words.length] + " " + words[i * 3 % words.length] + " история номер " + i));
+		}
+
+		filmStorage.createAll(films);
+
+		for (String word : words) {
+			Assertions.assertEquals(10, filmStorage.search(word + " ист", 10).size());
+		}
+	}
+
+	private List<Long> ids(String query) {
+		return filmStorage.search(query, 10).stream().map(Film::getId).toList();
+	}
+
+	private Film film(String name, String description) {
+		return Film.builder()
+				.id(1L)
+				.name(name)
+				.description(description)
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build();
+	}
+}
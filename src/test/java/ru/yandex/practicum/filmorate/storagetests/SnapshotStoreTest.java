@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.storagetests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.journal.SnapshotStore;
+import ru.yandex.practicum.filmorate.storage.journal.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class SnapshotStoreTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void shouldRestoreFromSnapshotAndJournalSuffix() throws IOException {
+		Path journalPath = directory.resolve("filmorate.wal");
+		SnapshotStore snapshotStore = new SnapshotStore(directory.resolve("filmorate.snapshot"));
+		InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		try (WriteAheadLog writeAheadLog = new WriteAheadLog(journalPath, 8, Duration.ZERO, true)) {
+			writeAheadLog.open();
+			filmStorage.setJournal(writeAheadLog);
+			userStorage.setJournal(writeAheadLog);
+			for (int i = 1; i <= 3; i++) {
+				userStorage.create(user(i));
+				filmStorage.create(film(i));
+			}
+			filmStorage.addLike(1L, 1L);
+			userStorage.addFriend(1L, 2L);
+
+			snapshotStore.write(filmStorage, userStorage, writeAheadLog.position());
+
+			// изменения после снимка восстанавливаются из хвоста журнала
+			filmStorage.addLike(3L, 1L);
+			filmStorage.addLike(3L, 2L);
+			filmStorage.deleteLike(1L, 1L);
+			userStorage.deleteFriend(1L, 2L);
+			userStorage.addFriend(2L, 3L);
+			userStorage.create(user(4));
+		}
+
+		InMemoryFilmStorage restoredFilms = new InMemoryFilmStorage();
+		InMemoryUserStorage restoredUsers = new InMemoryUserStorage();
+		long journalPosition = snapshotStore.load(restoredFilms, restoredUsers);
+		try (WriteAheadLog writeAheadLog = new WriteAheadLog(journalPath, 8, Duration.ZERO, true)) {
+			Assertions.assertEquals(6, writeAheadLog.replay(restoredFilms, restoredUsers, journalPosition));
+		}
+
+		Assertions.assertEquals(3, restoredFilms.findAll().size());
+		Assertions.assertEquals(4, restoredUsers.findAll().size());
+		Assertions.assertEquals(3L, restoredFilms.getMostLiked(1).get(0).getId());
+		Assertions.assertEquals(0, restoredFilms.findFilmById(1L).orElseThrow().getLikes().size());
+		Assertions.assertTrue(restoredUsers.findUserById(1L).orElseThrow().getFriends().isEmpty());
+		Assertions.assertTrue(restoredUsers.findUserById(3L).orElseThrow().getFriends().contains(2L));
+		Assertions.assertEquals(5L, restoredUsers.create(user(5)).getId());
+	}
+
+	@Test
+	void shouldRestoreLargeSnapshot() throws IOException {
+		int usersCount = 100_000;
+		int filmsCount = 10_000;
+		InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		for (int i = 1; i <= usersCount; i++) {
+			userStorage.create(user(i));
+		}
+		for (int i = 1; i <= filmsCount; i++) {
+			filmStorage.create(film(i));
+		}
+		for (long userId = 1; userId <= usersCount; userId++) {
+			for (int k = 1; k <= 5; k++) {
+				userStorage.addFriend(userId, (userId + k * 7_919L) % usersCount + 1);
+			}
+			filmStorage.addLike(userId % filmsCount + 1, userId);
+		}
+		SnapshotStore snapshotStore = new SnapshotStore(directory.resolve("filmorate.snapshot"));
+		snapshotStore.write(filmStorage, userStorage, 0);
+
+		InMemoryFilmStorage restoredFilms = new InMemoryFilmStorage();
+		InMemoryUserStorage restoredUsers = new InMemoryUserStorage();
+		snapshotStore.load(restoredFilms, restoredUsers);
+
+		Assertions.assertEquals(usersCount, restoredUsers.findAll().size());
+		Assertions.assertEquals(filmsCount, restoredFilms.findAll().size());
+		Assertions.assertEquals(userStorage.findUserById(42L).orElseThrow().getFriends(),
+				restoredUsers.findUserById(42L).orElseThrow().getFriends());
+	}
+
+	private User user(int number) {
+		return User.builder()
+				.email("email@" + number)
+				.login("login" + number)
+				.name("name" + number)
+				.birthday("2010-10-10")
+				.build();
+	}
+
+	private Film film(int number) {
+		return Film.builder()
+				.name("film" + number)
+				.description("description " + number)
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build();
+	}
+}
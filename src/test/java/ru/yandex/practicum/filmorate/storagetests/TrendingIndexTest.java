@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.storagetests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.storage.TrendingIndex;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class TrendingIndexTest {
+	private final MutableClock clock = new MutableClock();
+	private final TrendingIndex trendingIndex = new TrendingIndex(clock);
+
+	@Test
+	void shouldDropLikesLeavingEachWindow() {
+		trendingIndex.likeChanged(1L, true);
+		trendingIndex.likeChanged(1L, true);
+		trendingIndex.likeChanged(2L, true);
+		clock.advance(Duration.ofMinutes(30));
+		trendingIndex.likeChanged(3L, true);
+		trendingIndex.likeChanged(3L, true);
+		trendingIndex.likeChanged(3L, true);
+
+		Assertions.assertEquals(List.of(3L, 1L, 2L), trendingIndex.top(TrendingWindow.HOUR, 10));
+
+		clock.advance(Duration.ofMinutes(31));
+		Assertions.assertEquals(List.of(3L), trendingIndex.top(TrendingWindow.HOUR, 10));
+		Assertions.assertEquals(List.of(3L, 1L, 2L), trendingIndex.top(TrendingWindow.DAY, 10));
+
+		clock.advance(Duration.ofHours(24));
+		Assertions.assertEquals(List.of(), trendingIndex.top(TrendingWindow.DAY, 10));
+		Assertions.assertEquals(List.of(3L, 1L), trendingIndex.top(TrendingWindow.WEEK, 2));
+
+		clock.advance(Duration.ofDays(7));
+		Assertions.assertEquals(List.of(), trendingIndex.top(TrendingWindow.WEEK, 10));
+		Assertions.assertEquals(0, trendingIndex.size());
+	}
+
+	@Test
+	void shouldSubtractDeletedLikeOnlyFromWindowsWithLikes() {
+		trendingIndex.likeChanged(1L, true);
+		trendingIndex.likeChanged(2L, true);
+		trendingIndex.likeChanged(2L, false);
+
+		Assertions.assertEquals(List.of(1L), trendingIndex.top(TrendingWindow.HOUR, 10));
+
+		clock.advance(Duration.ofHours(2));
+		trendingIndex.likeChanged(1L, false);
+
+		Assertions.assertEquals(List.of(), trendingIndex.top(TrendingWindow.DAY, 10));
+		// лайк фильма 3 удален без лайков в окне: счетчики не уходят в минус
+		trendingIndex.likeChanged(3L, false);
+		Assertions.assertEquals(0, trendingIndex.size());
+	}
+
+	@Test
+	void shouldIngestManyLikes() {
+		int likes = 200_000;
+		for (int i = 0; i < likes; i++) {
+			trendingIndex.likeChanged(1 + (i * 7919L) % 20_000, true);
+			if (i % 10_000 == 0) {
+				clock.advance(Duration.ofSeconds(1));
+			}
+		}
+
+		Assertions.assertEquals(20_000, trendingIndex.size());
+		Assertions.assertEquals(10, trendingIndex.top(TrendingWindow.HOUR, 10).size());
+	}
+
+	private static class MutableClock extends Clock {
+		private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
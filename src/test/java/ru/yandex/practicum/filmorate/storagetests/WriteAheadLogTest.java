@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.storagetests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.journal.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+public class WriteAheadLogTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void shouldRestoreStateAfterRestart() throws IOException {
+		Path path = directory.resolve("filmorate.wal");
+		InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		try (WriteAheadLog writeAheadLog = open(path, filmStorage, userStorage)) {
+			fillStorages(filmStorage, userStorage);
+			// каждое изменение дождалось fsync, поэтому отметка для снимка - весь файл журнала
+			Assertions.assertEquals(Files.size(path), writeAheadLog.position());
+		}
+
+		InMemoryFilmStorage restoredFilms = new InMemoryFilmStorage();
+		InMemoryUserStorage restoredUsers = new InMemoryUserStorage();
+		try (WriteAheadLog writeAheadLog = open(path, restoredFilms, restoredUsers)) {
+			assertRestored(restoredFilms, restoredUsers);
+
+			// после восстановления нумерация продолжается, а новые записи попадают в тот же журнал
+			Film film = restoredFilms.create(film("film3"));
+			Assertions.assertEquals(3L, film.getId());
+		}
+	}
+
+	@Test
+	void shouldIgnoreTornTailAfterCrash() throws IOException {
+		Path path = directory.resolve("filmorate.wal");
+		InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		try (WriteAheadLog writeAheadLog = open(path, filmStorage, userStorage)) {
+			fillStorages(filmStorage, userStorage);
+		}
+		long validLength = Files.size(path);
+		// имитируем недописанную запись
+		Files.write(path, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+		InMemoryFilmStorage restoredFilms = new InMemoryFilmStorage();
+		InMemoryUserStorage restoredUsers = new InMemoryUserStorage();
+		try (WriteAheadLog writeAheadLog = open(path, restoredFilms, restoredUsers)) {
+			assertRestored(restoredFilms, restoredUsers);
+		}
+		Assertions.assertEquals(validLength, Files.size(path));
+	}
+
+	@Test
+	void shouldLeaveStoragesUnchangedWhenRecordIsNotWritten() throws IOException {
+		Path path = directory.resolve("filmorate.wal");
+		InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		WriteAheadLog writeAheadLog = open(path, filmStorage, userStorage);
+		fillStorages(filmStorage, userStorage);
+
+		// название длиннее 65535 байт в UTF-8 не помещается в запись журнала
+		Assertions.assertThrows(ConditionsNotMetException.class, () -> filmStorage.update(Film.builder()
+				.id(1L)
+				.name("я".repeat(40_000))
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build()));
+		Assertions.assertEquals("film1", filmStorage.findFilmById(1L).orElseThrow().getName());
+
+		writeAheadLog.close();
+		Assertions.assertThrows(IllegalStateException.class, () -> filmStorage.addLike(1L, 3L));
+		Assertions.assertThrows(IllegalStateException.class, () -> userStorage.addFriend(2L, 3L));
+		Assertions.assertEquals(0, filmStorage.findFilmById(1L).orElseThrow().getLikes().size());
+		Assertions.assertFalse(userStorage.findUserById(2L).orElseThrow().getFriends().contains(3L));
+		Assertions.assertFalse(userStorage.findUserById(3L).orElseThrow().getFriends().contains(2L));
+	}
+
+	private WriteAheadLog open(Path path, InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage)
+			throws IOException {
+		WriteAheadLog writeAheadLog = new WriteAheadLog(path, 8, Duration.ZERO, true);
+		writeAheadLog.replay(filmStorage, userStorage, 0);
+		writeAheadLog.open();
+		filmStorage.setJournal(writeAheadLog);
+		userStorage.setJournal(writeAheadLog);
+		return writeAheadLog;
+	}
+
+	private void fillStorages(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage) {
+		for (int i = 1; i <= 3; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.name("name" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		filmStorage.create(film("film1"));
+		filmStorage.create(film("film2"));
+		filmStorage.update(Film.builder()
+				.id(2L)
+				.name("film2 updated")
+				.description("description")
+				.releaseDate("2000-01-01")
+				.duration(90)
+				.build());
+		filmStorage.addLike(1L, 1L);
+		filmStorage.addLike(2L, 1L);
+		filmStorage.addLike(2L, 2L);
+		filmStorage.deleteLike(1L, 1L);
+		userStorage.addFriend(1L, 2L);
+		userStorage.addFriend(1L, 3L);
+		userStorage.deleteFriend(1L, 3L);
+	}
+
+	private void assertRestored(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage) {
+		Assertions.assertEquals(2, filmStorage.findAll().size());
+		Assertions.assertEquals(3, userStorage.findAll().size());
+		Film updated = filmStorage.findFilmById(2L).orElseThrow();
+		Assertions.assertEquals("film2 updated", updated.getName());
+		Assertions.assertEquals(90, updated.getDuration());
+		Assertions.assertEquals(2, updated.getLikes().size());
+		Assertions.assertEquals(0, filmStorage.findFilmById(1L).orElseThrow().getLikes().size());
+		Assertions.assertEquals(2L, filmStorage.getMostLiked(1).get(0).getId());
+		Assertions.assertTrue(userStorage.findUserById(2L).orElseThrow().getFriends().contains(1L));
+		Assertions.assertEquals(1, userStorage.findUserById(1L).orElseThrow().getFriends().size());
+	}
+
+	private Film film(String name) {
+		return Film.builder()
+				.name(name)
+				.description("description")
+				.releaseDate("2010-10-10")
+				.duration(100)
+				.build();
+	}
+}
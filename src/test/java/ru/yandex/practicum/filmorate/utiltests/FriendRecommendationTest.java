@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.utiltests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+import ru.yandex.practicum.filmorate.util.TopK;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+public class FriendRecommendationTest {
+
+	@Test
+	void shouldSelectTopKLikeFullSort() {
+		Random random = new Random(7);
+		LongIntCounter counter = new LongIntCounter(4);
+		Map<Long, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 50_000; i++) {
+			long id = 1 + random.nextInt(5_000);
+			counter.increment(id);
+			expected.merge(id, 1, Integer::sum);
+		}
+		TopK top = new TopK(20);
+		top.offerAll(counter);
+
+		long[] sorted = expected.entrySet().stream()
+				.sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.<Long, Integer>comparingByKey()))
+				.limit(20)
+				.mapToLong(Map.Entry::getKey)
+				.toArray();
+		Assertions.assertArrayEquals(sorted, top.drainDescending());
+		Assertions.assertEquals(expected.size(), counter.size());
+	}
+
+	@Test
+	void shouldGiveSameRecommendationsInParallelMode() {
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		int usersCount = 3_000;
+		for (int i = 1; i <= usersCount; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		// у пользователя 1 тысяча друзей, у остальных - по несколько случайных
+		Random random = new Random(42);
+		List<Friendship> friendships = new ArrayList<>();
+		for (long friendId = 2; friendId <= 1_001; friendId++) {
+			friendships.add(new Friendship(1L, friendId));
+		}
+		for (long userId = 2; userId <= usersCount; userId++) {
+			for (int i = 0; i < 5; i++) {
+				long friendId = 2 + random.nextInt(usersCount - 1);
+				if (friendId != userId) {
+					friendships.add(new Friendship(userId, friendId));
+				}
+			}
+		}
+		userStorage.addFriendships(friendships);
+
+		UserService sequential = new UserService(userStorage);
+		sequential.setParallelThreshold(0);
+		UserService parallel = new UserService(userStorage);
+		parallel.setParallelThreshold(1);
+
+		List<User> expected = sequential.getRecommendations(1L, 50);
+		Assertions.assertEquals(50, expected.size());
+		Assertions.assertEquals(expected, parallel.getRecommendations(1L, 50));
+		Assertions.assertTrue(expected.stream().allMatch(user -> user.getId() > 1_001));
+	}
+
+	@Test
+	void shouldCountExactlyByDefaultAndMatchExactCountBelowEdgeLimit() {
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		int usersCount = 3_000;
+		for (int i = 1; i <= usersCount; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		// у пользователя 1 пятьсот друзей, у каждого из них - по 10 случайных друзей
+		Random random = new Random(5);
+		List<Friendship> friendships = new ArrayList<>();
+		for (long friendId = 2; friendId <= 501; friendId++) {
+			friendships.add(new Friendship(1L, friendId));
+			for (int i = 0; i < 10; i++) {
+				friendships.add(new Friendship(friendId, 502L + random.nextInt(usersCount - 501)));
+			}
+		}
+		userStorage.addFriendships(friendships);
+		int edges = 0;
+		for (long friendId = 2; friendId <= 501; friendId++) {
+			edges += userStorage.findUserById(friendId).orElseThrow().getFriends().size();
+		}
+
+		UserService exact = new UserService(userStorage);
+		Assertions.assertEquals(0, UserService.DEFAULT_MAX_RECOMMENDATION_EDGES);
+		List<User> expected = exact.getRecommendations(1L, 100);
+		Assertions.assertEquals(100, expected.size());
+
+		// пока все связи помещаются в предел, выборка не делается и результат тот же
+		for (int maxEdges : new int[] {edges, 2 * edges}) {
+			UserService limited = new UserService(userStorage);
+			limited.setMaxRecommendationEdges(maxEdges);
+			Assertions.assertEquals(expected, limited.getRecommendations(1L, 100), "max-edges " + maxEdges);
+		}
+	}
+
+	@Test
+	void shouldKeepStrongCandidatesWhenSamplingFriends() {
+		InMemoryUserStorage userStorage = new InMemoryUserStorage();
+		int usersCount = 20_000;
+		for (int i = 1; i <= usersCount; i++) {
+			userStorage.create(User.builder()
+					.email("email@" + i)
+					.login("login" + i)
+					.birthday("2010-10-10")
+					.build());
+		}
+		// у пользователя 1 две тысячи друзей по 20 случайных друзей у каждого; пользователи 19 991-20 000
+		// дружат с каждым десятым из них - они лучшие кандидаты и должны найтись и по выборке
+		Random random = new Random(11);
+		List<Friendship> friendships = new ArrayList<>();
+		for (long friendId = 2; friendId <= 2_001; friendId++) {
+			friendships.add(new Friendship(1L, friendId));
+			for (int i = 0; i < 20; i++) {
+				friendships.add(new Friendship(friendId, 2_002L + random.nextInt(17_989)));
+			}
+			if (friendId % 10 == 0) {
+				for (long candidate = 19_991; candidate <= usersCount; candidate++) {
+					friendships.add(new Friendship(friendId, candidate));
+				}
+			}
+		}
+		userStorage.addFriendships(friendships);
+
+		UserService userService = new UserService(userStorage);
+		// просматривается примерно пятая часть связей
+		userService.setMaxRecommendationEdges(10_000);
+		List<Long> recommended = userService.getRecommendations(1L, 10).stream().map(User::getId).sorted().toList();
+
+		Assertions.assertEquals(LongStream.rangeClosed(19_991, usersCount).boxed().toList(), recommended);
+		Assertions.assertEquals(userService.getRecommendations(1L, 50), userService.getRecommendations(1L, 50));
+	}
+}
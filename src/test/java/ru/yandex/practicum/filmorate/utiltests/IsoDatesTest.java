@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.utiltests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.IsoDates;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public class IsoDatesTest {
+	private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@Test
+	void shouldMatchLocalDateForEveryDay() {
+		for (LocalDate date = LocalDate.of(1600, 1, 1); date.getYear() < 2401; date = date.plusDays(1)) {
+			int day = IsoDates.of(date);
+			Assertions.assertEquals(day, IsoDates.parse(date.format(formatter)), date.toString());
+			Assertions.assertEquals(date.format(formatter), IsoDates.format(day));
+			Assertions.assertEquals(date, IsoDates.toLocalDate(day));
+		}
+		Assertions.assertEquals("0001-01-01", IsoDates.format(IsoDates.parse("0001-01-01")));
+		Assertions.assertEquals("9999-12-31", IsoDates.format(IsoDates.parse("9999-12-31")));
+	}
+
+	@Test
+	void shouldParseLikeSmartFormatterAndRejectWithoutExceptions() {
+		// несуществующий день 29-31 заменяется последним днем месяца, как при разборе через DateTimeFormatter
+		Assertions.assertEquals(IsoDates.of(LocalDate.parse("2023-02-30", formatter)), IsoDates.parse("2023-02-30"));
+		Assertions.assertEquals(IsoDates.of(LocalDate.of(2024, 2, 29)), IsoDates.parse("2024-02-31"));
+
+		for (String text : new String[] {null, "", "  "}) {
+			Assertions.assertEquals(IsoDates.NONE, IsoDates.parse(text), text);
+		}
+		for (String text : new String[] {"2010-1-10", "2010/10/10", "2010-13-01", "2010-00-10", "2010-10-32",
+				"2010-10-00", "0000-10-10", "20a0-10-10", "2010-10-10T00:00", " 2010-10-10", "10102010"}) {
+			Assertions.assertEquals(IsoDates.INVALID, IsoDates.parse(text), text);
+		}
+		Assertions.assertNull(IsoDates.format(IsoDates.NONE));
+		Assertions.assertEquals(IsoDates.of(LocalDate.now()), IsoDates.today());
+	}
+
+	@Test
+	void shouldReadAndWriteDatesAsIsoStringsInJson() throws Exception {
+		Film film = objectMapper.readValue(
+				"{\"name\": \"film\", \"releaseDate\": \"2010-10-10\", \"duration\": 100}", Film.class);
+		Assertions.assertEquals(IsoDates.of(LocalDate.of(2010, 10, 10)), film.getReleaseDate());
+		Assertions.assertTrue(objectMapper.writeValueAsString(film).contains("\"releaseDate\":\"2010-10-10\""));
+
+		// ошибки формата не прерывают чтение: их сообщения выдает валидатор
+		Assertions.assertEquals(IsoDates.INVALID, objectMapper.readValue(
+				"{\"releaseDate\": \"10102010\"}", Film.class).getReleaseDate());
+		Assertions.assertEquals(IsoDates.NONE, objectMapper.readValue(
+				"{\"releaseDate\": null}", Film.class).getReleaseDate());
+		Assertions.assertEquals(IsoDates.NONE, objectMapper.readValue(
+				"{\"name\": \"film\"}", Film.class).getReleaseDate());
+
+		User user = objectMapper.readValue(
+				"{\"email\": \"email@1\", \"login\": \"login\", \"birthday\": \"\"}", User.class);
+		Assertions.assertEquals(IsoDates.NONE, user.getBirthday());
+		Assertions.assertTrue(objectMapper.writeValueAsString(user).contains("\"birthday\":null"));
+	}
+}
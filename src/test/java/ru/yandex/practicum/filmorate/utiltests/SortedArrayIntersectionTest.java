@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.utiltests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.SortedArrayIntersection;
+import ru.yandex.practicum.filmorate.util.SortedLongSet;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class SortedArrayIntersectionTest {
+	private final Random random = new Random(42);
+
+	@Test
+	void shouldIntersectSetsOfSimilarSize() {
+		checkAgainstHashSet(1_000, 1_000, 3_000);
+	}
+
+	@Test
+	void shouldIntersectSkewedSets() {
+		checkAgainstHashSet(10, 100_000, 200_000);
+		checkAgainstHashSet(100_000, 3, 200_000);
+	}
+
+	@Test
+	void shouldHandleEmptySets() {
+		SortedLongSet empty = new SortedLongSet();
+		SortedLongSet other = randomSet(100, 1_000);
+
+		Assertions.assertEquals(0, empty.countCommon(other));
+		Assertions.assertEquals(0, other.intersect(empty).length);
+		Assertions.assertEquals(0, SortedArrayIntersection.count(new long[0], 0, new long[0], 0));
+	}
+
+	private void checkAgainstHashSet(int firstSize, int secondSize, int bound) {
+		SortedLongSet first = randomSet(firstSize, bound);
+		SortedLongSet second = randomSet(secondSize, bound);
+		Set<Long> expected = new HashSet<>(first);
+		expected.retainAll(second);
+
+		long[] common = first.intersect(second);
+
+		Assertions.assertEquals(expected.size(), first.countCommon(second));
+		Assertions.assertEquals(expected.size(), common.length);
+		for (int i = 0; i < common.length; i++) {
+			Assertions.assertTrue(expected.contains(common[i]));
+			if (i > 0) {
+				Assertions.assertTrue(common[i - 1] < common[i]);
+			}
+		}
+	}
+
+	private SortedLongSet randomSet(int size, int bound) {
+		SortedLongSet set = new SortedLongSet();
+		while (set.size() < size) {
+			set.add(random.nextInt(bound));
+		}
+		return set;
+	}
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.validatortests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validator.FilmValidator;
+import ru.yandex.practicum.filmorate.validator.UserValidator;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Function;
+
+public class ValidatorAllocationTest {
+	private static final Function<String, Long> NOT_FOUND = key -> null;
+
+	private final FilmValidator filmValidator = new FilmValidator();
+	private final UserValidator userValidator = new UserValidator();
+	private final Film film = Film.builder()
+			.name("film")
+			.description("description")
+			.releaseDate("2010-10-10")
+			.duration(100)
+			.build();
+	private final User user = User.builder()
+			.email("email@1")
+			.login("login")
+			.birthday("2010-10-10")
+			.build();
+
+	@Test
+	void shouldNotAllocateForValidInput() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		int iterations = 100_000;
+		// прогрев: первая проверка загружает классы и вычисляет текущий день
+		validate(iterations);
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		validate(iterations);
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+		// запас на объекты, которые могут создать сама JVM и компилятор во время измерения
+		Assertions.assertTrue(allocated < iterations, "выделено " + allocated + " байт");
+	}
+
+	private void validate(int iterations) {
+		for (int i = 0; i < iterations; i++) {
+			filmValidator.validate(film, null, NOT_FOUND);
+			userValidator.validate(user, null, NOT_FOUND);
+		}
+	}
+}